@@ -1,15 +1,26 @@
 package ru.milko.student_vertx;
 
+import io.vertx.core.Vertx;
 import io.vertx.ext.web.Router;
-import io.vertx.sqlclient.Pool;
 import lombok.Getter;
 import lombok.Setter;
 import org.mapstruct.factory.Mappers;
 import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.config.ExecutionMode;
+import ru.milko.student_vertx.config.RepositoryType;
+import ru.milko.student_vertx.context.RequestScopeHandler;
+import ru.milko.student_vertx.database.PoolWarmup;
+import ru.milko.student_vertx.database.ShardRouter;
 import ru.milko.student_vertx.mapper.CourseMapper;
 import ru.milko.student_vertx.mapper.DepartmentMapper;
 import ru.milko.student_vertx.mapper.StudentMapper;
 import ru.milko.student_vertx.mapper.TeacherMapper;
+import ru.milko.student_vertx.metrics.InstrumentedCourseRepository;
+import ru.milko.student_vertx.metrics.InstrumentedDepartmentRepository;
+import ru.milko.student_vertx.metrics.InstrumentedStudentRepository;
+import ru.milko.student_vertx.metrics.InstrumentedTeacherRepository;
+import ru.milko.student_vertx.metrics.Metrics;
+import ru.milko.student_vertx.metrics.RouteMetrics;
 import ru.milko.student_vertx.repository.CourseRepository;
 import ru.milko.student_vertx.repository.DepartmentRepository;
 import ru.milko.student_vertx.repository.StudentRepository;
@@ -18,61 +29,137 @@ import ru.milko.student_vertx.repository.impl.CourseRepositoryImpl;
 import ru.milko.student_vertx.repository.impl.DepartmentRepositoryImpl;
 import ru.milko.student_vertx.repository.impl.StudentRepositoryImpl;
 import ru.milko.student_vertx.repository.impl.TeacherRepositoryImpl;
+import ru.milko.student_vertx.repository.inmemory.InMemoryCourseRepository;
+import ru.milko.student_vertx.repository.inmemory.InMemoryDepartmentRepository;
+import ru.milko.student_vertx.repository.inmemory.InMemoryStore;
+import ru.milko.student_vertx.repository.inmemory.InMemoryStudentRepository;
+import ru.milko.student_vertx.repository.inmemory.InMemoryTeacherRepository;
+import ru.milko.student_vertx.rest.AdmissionHandler;
 import ru.milko.student_vertx.rest.BasicController;
 import ru.milko.student_vertx.rest.CourseController;
 import ru.milko.student_vertx.rest.DepartmentController;
+import ru.milko.student_vertx.rest.HealthController;
+import ru.milko.student_vertx.rest.MetricsController;
 import ru.milko.student_vertx.rest.StudentController;
 import ru.milko.student_vertx.rest.TeacherController;
 import ru.milko.student_vertx.service.CourseService;
 import ru.milko.student_vertx.service.DepartmentService;
 import ru.milko.student_vertx.service.StudentService;
+import ru.milko.student_vertx.service.Services;
 import ru.milko.student_vertx.service.TeacherService;
 import ru.milko.student_vertx.service.impl.CourseServiceImpl;
 import ru.milko.student_vertx.service.impl.DepartmentServiceImpl;
 import ru.milko.student_vertx.service.impl.StudentServiceImpl;
 import ru.milko.student_vertx.service.impl.TeacherServiceImpl;
+import ru.milko.student_vertx.service.impl.VirtualThreadCourseServiceImpl;
+import ru.milko.student_vertx.service.impl.VirtualThreadStudentServiceImpl;
+import ru.milko.student_vertx.utils.EventLoopMonitor;
+import ru.milko.student_vertx.utils.ResponseCompression;
+import ru.milko.student_vertx.utils.WorkerOffload;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import static ru.milko.student_vertx.utils.PathUtils.API_PATH;
+
 public class ApplicationContext {
-    private final Pool pool;
+    private final Vertx vertx;
+    private final Services services;
+    private final Config config;
     private final List<BasicController> controllers = new ArrayList<>();
+    private AdmissionHandler admissionHandler;
+    private EventLoopMonitor eventLoopMonitor;
 
-    public ApplicationContext(Pool pool) {
-        this.pool = pool;
+    public ApplicationContext(Vertx vertx, Services services, Config config) {
+        this.vertx = vertx;
+        this.services = services;
+        this.config = config;
     }
 
-    public void initDependencies(){
+    public static Services createServices(ShardRouter shardRouter, InMemoryStore store, Config config) {
         final StudentMapper studentMapper = Mappers.getMapper(StudentMapper.class);
         final CourseMapper courseMapper = Mappers.getMapper(CourseMapper.class);
         final TeacherMapper teacherMapper = Mappers.getMapper(TeacherMapper.class);
         final DepartmentMapper departmentMapper = Mappers.getMapper(DepartmentMapper.class);
 
-        final StudentRepository studentRepository = new StudentRepositoryImpl(pool);
-        final CourseRepository courseRepository = new CourseRepositoryImpl(pool);
-        final TeacherRepository teacherRepository = new TeacherRepositoryImpl(pool);
-        final DepartmentRepository departmentRepository = new DepartmentRepositoryImpl(pool);
+        StudentRepository studentRepository;
+        CourseRepository courseRepository;
+        TeacherRepository teacherRepository;
+        DepartmentRepository departmentRepository;
 
-        final StudentService studentService = new StudentServiceImpl(studentRepository, courseRepository, teacherRepository, studentMapper, courseMapper, teacherMapper);
-        final CourseService courseService = new CourseServiceImpl(courseRepository, teacherRepository, studentRepository, courseMapper, teacherMapper, studentMapper);
+        if (RepositoryType.from(config) == RepositoryType.IN_MEMORY) {
+            studentRepository = new InMemoryStudentRepository(store);
+            courseRepository = new InMemoryCourseRepository(store);
+            teacherRepository = new InMemoryTeacherRepository(store);
+            departmentRepository = new InMemoryDepartmentRepository(store);
+        } else {
+            studentRepository = new StudentRepositoryImpl(shardRouter);
+            courseRepository = new CourseRepositoryImpl(shardRouter);
+            teacherRepository = new TeacherRepositoryImpl(shardRouter);
+            departmentRepository = new DepartmentRepositoryImpl(shardRouter);
+            PoolWarmup.prepare(StudentRepositoryImpl.STATEMENTS);
+            PoolWarmup.prepare(CourseRepositoryImpl.STATEMENTS);
+            PoolWarmup.prepare(TeacherRepositoryImpl.STATEMENTS);
+            PoolWarmup.prepare(DepartmentRepositoryImpl.STATEMENTS);
+        }
+        if (Metrics.isEnabled()) {
+            studentRepository = new InstrumentedStudentRepository(studentRepository);
+            courseRepository = new InstrumentedCourseRepository(courseRepository);
+            teacherRepository = new InstrumentedTeacherRepository(teacherRepository);
+            departmentRepository = new InstrumentedDepartmentRepository(departmentRepository);
+        }
+
+        final StudentService studentService;
+        final CourseService courseService;
+        if (ExecutionMode.from(config) == ExecutionMode.VIRTUAL_THREAD) {
+            studentService = new VirtualThreadStudentServiceImpl(studentRepository, courseRepository, teacherRepository, studentMapper, courseMapper, teacherMapper);
+            courseService = new VirtualThreadCourseServiceImpl(courseRepository, teacherRepository, studentRepository, courseMapper, teacherMapper, studentMapper);
+        } else {
+            studentService = new StudentServiceImpl(studentRepository, courseRepository, teacherRepository, studentMapper, courseMapper, teacherMapper);
+            courseService = new CourseServiceImpl(courseRepository, teacherRepository, studentRepository, courseMapper, teacherMapper, studentMapper);
+        }
         final TeacherService teacherService = new TeacherServiceImpl(teacherRepository, courseRepository, departmentRepository, teacherMapper, courseMapper, departmentMapper);
         final DepartmentService departmentService = new DepartmentServiceImpl(departmentRepository, teacherRepository, departmentMapper, teacherMapper);
 
-        final StudentController studentController = new StudentController(studentService);
-        final CourseController courseController = new CourseController(courseService);
-        final TeacherController teacherController = new TeacherController(teacherService);
-        final DepartmentController departmentController = new DepartmentController(departmentService);
+        return new Services(studentService, courseService, teacherService, departmentService);
+    }
+
+    public void initDependencies(){
+        final StudentController studentController = new StudentController(services.student());
+        final CourseController courseController = new CourseController(services.course());
+        final TeacherController teacherController = new TeacherController(services.teacher());
+        final DepartmentController departmentController = new DepartmentController(services.department());
+        eventLoopMonitor = new EventLoopMonitor(vertx, config);
+        final HealthController healthController = new HealthController(eventLoopMonitor, config);
 
         controllers.add(studentController);
         controllers.add(courseController);
         controllers.add(teacherController);
         controllers.add(departmentController);
+        controllers.add(healthController);
+        if (Metrics.isEnabled()) {
+            Metrics.bind(eventLoopMonitor);
+            controllers.add(new MetricsController());
+        }
+
+        admissionHandler = new AdmissionHandler(vertx, config);
+        WorkerOffload.configure(vertx, config);
+        ResponseCompression.configure(config);
     }
 
     public void registerRoutes(Router router){
+        RequestScopeHandler.configure(config);
+        router.route().handler(RequestScopeHandler::handle);
+        router.route(API_PATH).handler(admissionHandler::handle);
         for (BasicController controller : controllers) {
             controller.registerRoutes(router);
         }
+        RouteMetrics.register(router);
+    }
+
+    public void close() {
+        if (eventLoopMonitor != null) {
+            eventLoopMonitor.close();
+        }
     }
 }
@@ -1,33 +1,74 @@
 package ru.milko.student_vertx;
 
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.ext.web.Router;
-import io.vertx.sqlclient.Pool;
+import ru.milko.student_vertx.cache.EntityCaches;
 import ru.milko.student_vertx.config.Config;
 import ru.milko.student_vertx.config.DatabasePoolConfig;
+import ru.milko.student_vertx.config.ExecutionMode;
+import ru.milko.student_vertx.config.HttpServerConfig;
+import ru.milko.student_vertx.config.RepositoryType;
+import ru.milko.student_vertx.config.ServiceTransport;
 import ru.milko.student_vertx.database.FlywayMigration;
+import ru.milko.student_vertx.database.ShardRouter;
+import ru.milko.student_vertx.eventbus.EventBusServices;
 import ru.milko.student_vertx.exceptionhandling.GlobalErrorHandler;
+import ru.milko.student_vertx.metrics.Metrics;
+import ru.milko.student_vertx.repository.inmemory.InMemoryStore;
+import ru.milko.student_vertx.service.Services;
 
 public class MyVerticle extends AbstractVerticle {
+    private ApplicationContext applicationContext;
+
     @Override
     public void start(Promise<Void> startPromise) {
-        String activeProfile = System.getProperty("profile", "default");
         Router router = Router.router(vertx);
-        Config config = new Config("src/main/resources/application-" + activeProfile + ".properties");
-        FlywayMigration.migrate(config);
-        Pool pool = DatabasePoolConfig.createPool(vertx, config);
+        Config config = Config.forActiveProfile();
+        Metrics.configure(config);
+        InMemoryStore store = new InMemoryStore();
+        if (RepositoryType.from(config) == RepositoryType.POSTGRES) {
+            FlywayMigration.migrate(config);
+        }
+
+        Future<Services> services;
+        if (ServiceTransport.from(config) == ServiceTransport.EVENT_BUS) {
+            EventBusServices.registerCodec(vertx);
+            DeploymentOptions options = new DeploymentOptions()
+                    .setInstances(Integer.parseInt(config.get("service.verticle.instances", "1")))
+                    .setThreadingModel(ExecutionMode.from(config).threadingModel());
+            services = vertx.deployVerticle(() -> new ServiceVerticle(config, store), options)
+                    .map(id -> EventBusServices.proxies(vertx, config));
+        } else {
+            ShardRouter shardRouter = RepositoryType.from(config) == RepositoryType.POSTGRES
+                    ? DatabasePoolConfig.createShardRouter(vertx, config)
+                    : null;
+            services = Future.succeededFuture(ApplicationContext.createServices(shardRouter, store, config));
+        }
 
-        ApplicationContext context = new ApplicationContext(pool);
-        context.initDependencies();
-        context.registerRoutes(router);
+        if (Boolean.parseBoolean(config.get("cache.enabled", "false"))) {
+            EntityCaches caches = new EntityCaches(vertx, config);
+            Metrics.bind(caches);
+            services = services.map(caches::decorate);
+        }
+
+        services.onSuccess(s -> startHttpServer(router, config, s, startPromise))
+                .onFailure(startPromise::fail);
+    }
+
+    private void startHttpServer(Router router, Config config, Services services, Promise<Void> startPromise) {
+        applicationContext = new ApplicationContext(vertx, services, config);
+        applicationContext.initDependencies();
+        applicationContext.registerRoutes(router);
 
         int defaultPort = Integer.parseInt(config.get("http.port"));
         int port = Integer.parseInt(System.getProperty("http.port", String.valueOf(defaultPort)));
 
         router.route().failureHandler(GlobalErrorHandler::handle);
 
-        vertx.createHttpServer()
+        Warmup.run(vertx, router, config).onComplete(warmup -> vertx.createHttpServer(HttpServerConfig.createOptions(vertx, config))
                 .requestHandler(router)
                 .listen(port, http -> {
                     if (http.succeeded()) {
@@ -39,7 +80,13 @@ public class MyVerticle extends AbstractVerticle {
                         System.err.println("Не удалось запустить HTTP сервер: " + http.cause().getMessage());
                         startPromise.fail(http.cause());
                     }
-                });
+                }));
     }
 
+    @Override
+    public void stop() {
+        if (applicationContext != null) {
+            applicationContext.close();
+        }
+    }
 }
\ No newline at end of file
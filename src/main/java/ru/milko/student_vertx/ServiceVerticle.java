@@ -0,0 +1,33 @@
+package ru.milko.student_vertx;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.config.DatabasePoolConfig;
+import ru.milko.student_vertx.config.RepositoryType;
+import ru.milko.student_vertx.database.ShardRouter;
+import ru.milko.student_vertx.eventbus.EventBusServices;
+import ru.milko.student_vertx.repository.inmemory.InMemoryStore;
+
+/**
+ * Runs the services behind their event-bus addresses, with database pools of its own.
+ */
+public class ServiceVerticle extends AbstractVerticle {
+    private final Config config;
+    private final InMemoryStore store;
+
+    public ServiceVerticle(Config config, InMemoryStore store) {
+        this.config = config;
+        this.store = store;
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        ShardRouter shardRouter = RepositoryType.from(config) == RepositoryType.POSTGRES
+                ? DatabasePoolConfig.createShardRouter(vertx, config)
+                : null;
+        // local consumers are registered synchronously
+        EventBusServices.register(vertx, ApplicationContext.createServices(shardRouter, store, config));
+        startPromise.complete();
+    }
+}
@@ -1,18 +1,29 @@
 package ru.milko.student_vertx;
 
 
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import ru.milko.student_vertx.config.ClusterConfig;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.config.ExecutionMode;
 
 public class StudentVertxApplication {
 	public static void main(String[] args) {
-		Vertx vertx = Vertx.vertx();
+		Config config = Config.forActiveProfile();
+		Vertx vertx = ClusterConfig.createVertx(config).toCompletionStage().toCompletableFuture().join();
+		DeploymentOptions options = new DeploymentOptions()
+				.setThreadingModel(ExecutionMode.from(config).threadingModel());
 
-		vertx.deployVerticle(new MyVerticle(), result -> {
-			if (result.succeeded()) {
-				System.out.println("StudentVertx успешно развернут!");
-			} else {
-				System.err.println("Не удалось развернуть StudentVertx: " + result.cause());
-			}
-		});
+		Future<String> deployment = vertx.deployVerticle(new MyVerticle(), options)
+				.onComplete(result -> {
+					if (result.succeeded()) {
+						System.out.println("StudentVertx успешно развернут!");
+					} else {
+						System.err.println("Не удалось развернуть StudentVertx: " + result.cause());
+					}
+				});
+		// virtual threads are daemon threads: until the HTTP server runs its event loops nothing keeps the JVM alive
+		deployment.toCompletionStage().toCompletableFuture().exceptionally(e -> null).join();
 	}
 }
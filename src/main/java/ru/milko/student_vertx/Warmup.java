@@ -0,0 +1,84 @@
+package ru.milko.student_vertx;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.database.PoolWarmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static ru.milko.student_vertx.utils.PathUtils.COURSES_PATH;
+import static ru.milko.student_vertx.utils.PathUtils.DEPARTMENTS_PATH;
+import static ru.milko.student_vertx.utils.PathUtils.STUDENTS_PATH;
+import static ru.milko.student_vertx.utils.PathUtils.TEACHERS_PATH;
+
+/**
+ * Warms the pools and the JIT with loopback GETs before the HTTP port is opened.
+ */
+@Slf4j
+public final class Warmup {
+    private static final String DEFAULT_PATHS = String.join(",", STUDENTS_PATH, COURSES_PATH, TEACHERS_PATH, DEPARTMENTS_PATH);
+
+    private Warmup() {
+    }
+
+    public static Future<Void> run(Vertx vertx, Router router, Config config) {
+        if (!Boolean.parseBoolean(config.get("warmup.enabled", "false"))) {
+            return Future.succeededFuture();
+        }
+        int iterations = Integer.parseInt(config.get("warmup.iterations", "20"));
+        long timeoutMs = Long.parseLong(config.get("warmup.timeout.ms", "30000"));
+        List<String> paths = new ArrayList<>();
+        for (String path : config.get("warmup.paths", DEFAULT_PATHS).split(",")) {
+            if (!path.isBlank()) {
+                paths.add(path.trim());
+            }
+        }
+
+        long start = System.nanoTime();
+        Future<Void> warmup = PoolWarmup.warmUp()
+                .compose(v -> traffic(vertx, router, paths, iterations));
+        return warmup.timeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .onSuccess(v -> log.info("*** warmup finished in {} ms", (System.nanoTime() - start) / 1_000_000))
+                .onFailure(e -> log.warn("*** warmup abandoned: {}", e.getMessage()))
+                .otherwiseEmpty();
+    }
+
+    private static Future<Void> traffic(Vertx vertx, Router router, List<String> paths, int iterations) {
+        if (paths.isEmpty() || iterations <= 0) {
+            return Future.succeededFuture();
+        }
+        return vertx.createHttpServer()
+                .requestHandler(router)
+                .listen(0, "127.0.0.1")
+                .compose(server -> {
+                    HttpClient client = vertx.createHttpClient(new HttpClientOptions()
+                            .setDefaultHost("127.0.0.1")
+                            .setDefaultPort(server.actualPort()));
+                    return rounds(client, paths, iterations)
+                            .eventually(() -> client.close().compose(v -> server.close()));
+                });
+    }
+
+    private static Future<Void> rounds(HttpClient client, List<String> paths, int remaining) {
+        if (remaining == 0) {
+            return Future.succeededFuture();
+        }
+        List<Future<Void>> requests = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            requests.add(client.request(HttpMethod.GET, path)
+                    .compose(request -> request.send())
+                    .compose(response -> response.body())
+                    .<Void>mapEmpty()
+                    .otherwiseEmpty());
+        }
+        return Future.join(requests).compose(v -> rounds(client, paths, remaining - 1));
+    }
+}
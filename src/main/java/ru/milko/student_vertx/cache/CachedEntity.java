@@ -0,0 +1,19 @@
+package ru.milko.student_vertx.cache;
+
+import java.util.Set;
+
+public enum CachedEntity {
+    STUDENT,
+    COURSE,
+    TEACHER,
+    DEPARTMENT;
+
+    public Set<CachedEntity> embeddedIn() {
+        return switch (this) {
+            case STUDENT -> Set.of(COURSE);
+            case COURSE -> Set.of(STUDENT, TEACHER);
+            case TEACHER -> Set.of(STUDENT, COURSE, DEPARTMENT);
+            case DEPARTMENT -> Set.of(TEACHER);
+        };
+    }
+}
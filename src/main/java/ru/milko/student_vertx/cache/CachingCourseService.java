@@ -0,0 +1,48 @@
+package ru.milko.student_vertx.cache;
+
+import io.vertx.core.Future;
+import ru.milko.student_vertx.dto.CourseDto;
+import ru.milko.student_vertx.service.CourseService;
+
+import java.util.List;
+
+public class CachingCourseService extends CachingService implements CourseService {
+    private final CourseService delegate;
+
+    public CachingCourseService(CourseService delegate, EntityCaches caches) {
+        super(caches);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Future<CourseDto> create(CourseDto dto) {
+        return delegate.create(dto)
+                .onSuccess(created -> caches.invalidate(CachedEntity.COURSE, created.getId()));
+    }
+
+    @Override
+    public Future<List<CourseDto>> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Future<CourseDto> findById(Long id) {
+        return cached(CachedEntity.COURSE, id, () -> delegate.findById(id));
+    }
+
+    @Override
+    public Future<CourseDto> update(CourseDto dto) {
+        return invalidating(delegate.update(dto), CachedEntity.COURSE, dto.getId());
+    }
+
+    @Override
+    public Future<Void> deleteById(Long id) {
+        return invalidating(delegate.deleteById(id), CachedEntity.COURSE, id);
+    }
+
+    @Override
+    public Future<CourseDto> setTeacherToCourse(Long courseId, Long teacherId) {
+        return invalidating(invalidating(delegate.setTeacherToCourse(courseId, teacherId),
+                CachedEntity.COURSE, courseId), CachedEntity.TEACHER, teacherId);
+    }
+}
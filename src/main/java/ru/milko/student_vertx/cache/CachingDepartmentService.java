@@ -0,0 +1,48 @@
+package ru.milko.student_vertx.cache;
+
+import io.vertx.core.Future;
+import ru.milko.student_vertx.dto.DepartmentDto;
+import ru.milko.student_vertx.service.DepartmentService;
+
+import java.util.List;
+
+public class CachingDepartmentService extends CachingService implements DepartmentService {
+    private final DepartmentService delegate;
+
+    public CachingDepartmentService(DepartmentService delegate, EntityCaches caches) {
+        super(caches);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Future<DepartmentDto> create(DepartmentDto dto) {
+        return delegate.create(dto)
+                .onSuccess(created -> caches.invalidate(CachedEntity.DEPARTMENT, created.getId()));
+    }
+
+    @Override
+    public Future<List<DepartmentDto>> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Future<DepartmentDto> findById(Long id) {
+        return cached(CachedEntity.DEPARTMENT, id, () -> delegate.findById(id));
+    }
+
+    @Override
+    public Future<DepartmentDto> update(DepartmentDto dto) {
+        return invalidating(delegate.update(dto), CachedEntity.DEPARTMENT, dto.getId());
+    }
+
+    @Override
+    public Future<Void> deleteById(Long id) {
+        return invalidating(delegate.deleteById(id), CachedEntity.DEPARTMENT, id);
+    }
+
+    @Override
+    public Future<DepartmentDto> setTeacherToDepartment(Long departmentId, Long teacherId) {
+        return invalidating(invalidating(delegate.setTeacherToDepartment(departmentId, teacherId),
+                CachedEntity.DEPARTMENT, departmentId), CachedEntity.TEACHER, teacherId);
+    }
+}
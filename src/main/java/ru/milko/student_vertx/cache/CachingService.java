@@ -0,0 +1,34 @@
+package ru.milko.student_vertx.cache;
+
+import io.vertx.core.Future;
+
+import java.util.function.Supplier;
+
+abstract class CachingService {
+    protected final EntityCaches caches;
+
+    protected CachingService(EntityCaches caches) {
+        this.caches = caches;
+    }
+
+    protected <V> Future<V> cached(CachedEntity entity, Long id, Supplier<Future<V>> load) {
+        EntityCache<V> cache = caches.cache(entity);
+        V value = cache.get(id);
+        if (value != null) {
+            return Future.succeededFuture(value);
+        }
+        long generation = cache.generation();
+        return load.get().onSuccess(loaded -> {
+            if (loaded != null) {
+                cache.put(id, loaded, generation);
+            }
+        });
+    }
+
+    /**
+     * Invalidates even when the write failed, as it may have changed some shards.
+     */
+    protected <T> Future<T> invalidating(Future<T> write, CachedEntity entity, Long id) {
+        return write.onComplete(ar -> caches.invalidate(entity, id));
+    }
+}
@@ -0,0 +1,54 @@
+package ru.milko.student_vertx.cache;
+
+import io.vertx.core.Future;
+import ru.milko.student_vertx.dto.CourseDto;
+import ru.milko.student_vertx.dto.StudentDto;
+import ru.milko.student_vertx.service.StudentService;
+
+import java.util.List;
+
+public class CachingStudentService extends CachingService implements StudentService {
+    private final StudentService delegate;
+
+    public CachingStudentService(StudentService delegate, EntityCaches caches) {
+        super(caches);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Future<StudentDto> create(StudentDto dto) {
+        return delegate.create(dto)
+                .onSuccess(created -> caches.invalidate(CachedEntity.STUDENT, created.getId()));
+    }
+
+    @Override
+    public Future<List<StudentDto>> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Future<StudentDto> findById(Long id) {
+        return cached(CachedEntity.STUDENT, id, () -> delegate.findById(id));
+    }
+
+    @Override
+    public Future<List<CourseDto>> findAllCoursesByStudentId(Long id) {
+        return delegate.findAllCoursesByStudentId(id);
+    }
+
+    @Override
+    public Future<StudentDto> update(StudentDto dto) {
+        return invalidating(delegate.update(dto), CachedEntity.STUDENT, dto.getId());
+    }
+
+    @Override
+    public Future<Void> deleteById(Long id) {
+        return invalidating(delegate.deleteById(id), CachedEntity.STUDENT, id);
+    }
+
+    @Override
+    public Future<StudentDto> addCourseToStudent(Long studentId, Long courseId) {
+        return invalidating(invalidating(delegate.addCourseToStudent(studentId, courseId),
+                CachedEntity.STUDENT, studentId), CachedEntity.COURSE, courseId);
+    }
+}
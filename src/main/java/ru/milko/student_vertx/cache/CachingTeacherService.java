@@ -0,0 +1,42 @@
+package ru.milko.student_vertx.cache;
+
+import io.vertx.core.Future;
+import ru.milko.student_vertx.dto.TeacherDto;
+import ru.milko.student_vertx.service.TeacherService;
+
+import java.util.List;
+
+public class CachingTeacherService extends CachingService implements TeacherService {
+    private final TeacherService delegate;
+
+    public CachingTeacherService(TeacherService delegate, EntityCaches caches) {
+        super(caches);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Future<TeacherDto> create(TeacherDto dto) {
+        return delegate.create(dto)
+                .onSuccess(created -> caches.invalidate(CachedEntity.TEACHER, created.getId()));
+    }
+
+    @Override
+    public Future<List<TeacherDto>> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Future<TeacherDto> findById(Long id) {
+        return cached(CachedEntity.TEACHER, id, () -> delegate.findById(id));
+    }
+
+    @Override
+    public Future<TeacherDto> update(TeacherDto dto) {
+        return invalidating(delegate.update(dto), CachedEntity.TEACHER, dto.getId());
+    }
+
+    @Override
+    public Future<Void> deleteById(Long id) {
+        return invalidating(delegate.deleteById(id), CachedEntity.TEACHER, id);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.milko.student_vertx.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache with a TTL. {@link #put} drops a value loaded before a concurrent eviction.
+ */
+public class EntityCache<V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<Long, Entry<V>> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long generation;
+
+    public EntityCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry<V>> eldest) {
+                return size() > EntityCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized V get(Long id) {
+        Entry<V> entry = entries.get(id);
+        if (entry == null || System.nanoTime() - entry.loadedAt() > ttlNanos) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(Long id, V value, long generation) {
+        if (this.generation == generation) {
+            entries.put(id, new Entry<>(value, System.nanoTime()));
+        }
+    }
+
+    public synchronized void evict(Long id) {
+        generation++;
+        if (entries.remove(id) != null) {
+            evictions.increment();
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        evictions.add(entries.size());
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+}
@@ -0,0 +1,76 @@
+package ru.milko.student_vertx.cache;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.database.LatencyHistogram;
+import ru.milko.student_vertx.service.Services;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Entity caches of this node; writes are invalidated on every node over {@value #INVALIDATION_ADDRESS}.
+ */
+@Slf4j
+public class EntityCaches {
+    public static final String INVALIDATION_ADDRESS = "cache.invalidate";
+
+    private final Vertx vertx;
+    private final String node = UUID.randomUUID().toString();
+    private final Map<CachedEntity, EntityCache<Object>> caches = new EnumMap<>(CachedEntity.class);
+    private final LatencyHistogram propagation = new LatencyHistogram(10_000);
+
+    public EntityCaches(Vertx vertx, Config config) {
+        this.vertx = vertx;
+        int maxSize = Integer.parseInt(config.get("cache.max.size", "10000"));
+        long ttlMillis = Long.parseLong(config.get("cache.ttl.ms", "60000"));
+        for (CachedEntity entity : CachedEntity.values()) {
+            caches.put(entity, new EntityCache<>(maxSize, ttlMillis));
+        }
+        vertx.eventBus().<JsonObject>consumer(INVALIDATION_ADDRESS, message -> {
+            JsonObject body = message.body();
+            if (node.equals(body.getString("node"))) {
+                return;
+            }
+            propagation.record(Math.max(0, System.currentTimeMillis() - body.getLong("sentAt")) * 1_000_000);
+            evict(CachedEntity.valueOf(body.getString("entity")), body.getLong("id"));
+        });
+    }
+
+    public Services decorate(Services services) {
+        return new Services(
+                new CachingStudentService(services.student(), this),
+                new CachingCourseService(services.course(), this),
+                new CachingTeacherService(services.teacher(), this),
+                new CachingDepartmentService(services.department(), this));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> EntityCache<V> cache(CachedEntity entity) {
+        return (EntityCache<V>) caches.get(entity);
+    }
+
+    public void invalidate(CachedEntity entity, Long id) {
+        evict(entity, id);
+        vertx.eventBus().publish(INVALIDATION_ADDRESS, new JsonObject()
+                .put("node", node)
+                .put("entity", entity.name())
+                .put("id", id)
+                .put("sentAt", System.currentTimeMillis()));
+    }
+
+    public LatencyHistogram propagation() {
+        return propagation;
+    }
+
+    private void evict(CachedEntity entity, Long id) {
+        log.debug("*** evicting {} {}", entity, id);
+        caches.get(entity).evict(id);
+        for (CachedEntity dependent : entity.embeddedIn()) {
+            caches.get(dependent).clear();
+        }
+    }
+}
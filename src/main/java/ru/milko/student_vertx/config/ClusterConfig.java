@@ -0,0 +1,48 @@
+package ru.milko.student_vertx.config;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.eventbus.EventBusOptions;
+import io.vertx.spi.cluster.hazelcast.ConfigUtil;
+import io.vertx.spi.cluster.hazelcast.HazelcastClusterManager;
+
+import java.util.Arrays;
+
+/**
+ * Creates the Vert.x instance, clustered over Hazelcast with TCP discovery when {@code cluster.enabled=true}.
+ */
+public class ClusterConfig {
+
+    public static Future<Vertx> createVertx(Config config) {
+        VertxOptions options = new VertxOptions()
+                .setPreferNativeTransport(Boolean.parseBoolean(config.get("transport.native", "false")));
+        if (!Boolean.parseBoolean(config.get("cluster.enabled", "false"))) {
+            return Future.succeededFuture(Vertx.vertx(options));
+        }
+        String host = config.get("cluster.host", "127.0.0.1");
+        int port = Integer.parseInt(config.get("cluster.port", "5701"));
+        String[] members = config.get("cluster.members", host).split(",");
+
+        com.hazelcast.config.Config hazelcast = ConfigUtil.loadConfig();
+        hazelcast.setProperty("hazelcast.logging.type", "slf4j");
+        hazelcast.getNetworkConfig()
+                .setPort(port)
+                .setPortAutoIncrement(true)
+                .setPublicAddress(host);
+        hazelcast.getNetworkConfig().getInterfaces()
+                .setEnabled(true)
+                .addInterface(host);
+        hazelcast.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        hazelcast.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        hazelcast.getNetworkConfig().getJoin().getTcpIpConfig()
+                .setEnabled(true)
+                .setMembers(Arrays.stream(members).map(String::trim).filter(member -> !member.isEmpty()).toList());
+
+        options.setEventBusOptions(new EventBusOptions().setHost(host));
+        return Vertx.builder()
+                .with(options)
+                .withClusterManager(new HazelcastClusterManager(hazelcast))
+                .buildClustered();
+    }
+}
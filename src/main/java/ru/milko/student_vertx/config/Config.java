@@ -15,7 +15,17 @@ public class Config {
         }
     }
 
+    public static Config forActiveProfile() {
+        String activeProfile = System.getProperty("profile", "default");
+        return new Config("src/main/resources/application-" + activeProfile + ".properties");
+    }
+
     public String get(String key) {
         return System.getProperty(key, properties.getProperty(key));
     }
+
+    public String get(String key, String defaultValue) {
+        String value = get(key);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
 }
@@ -4,58 +4,245 @@ import io.vertx.core.Vertx;
 import io.vertx.pgclient.PgConnectOptions;
 import io.vertx.sqlclient.Pool;
 import io.vertx.sqlclient.PoolOptions;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.database.DatabaseClient;
+import ru.milko.student_vertx.database.Lane;
+import ru.milko.student_vertx.database.PoolWarmup;
+import ru.milko.student_vertx.database.ReplicaRouter;
+import ru.milko.student_vertx.database.ShardRouter;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Slf4j
 public class DatabasePoolConfig {
-    private static int port;
-    private static String host;
-    private static String database;
-    private static String username;
-    private static String password;
-    private static int maxSize;
+    private static final List<Pool> writablePools = new CopyOnWriteArrayList<>();
 
     public static Pool createPool(Vertx vertx, Config config) {
-        configure(config);
-        validateDatabaseProperties();
+        Settings settings = Settings.from(config);
 
-        PgConnectOptions connectOptions = new PgConnectOptions()
-                .setPort(port)
-                .setHost(host)
-                .setDatabase(database)
-                .setUser(username)
-                .setPassword(password);
+        PgConnectOptions connectOptions = primaryConnectOptions(vertx, settings);
 
-        PoolOptions poolOptions = new PoolOptions().setMaxSize(maxSize);
+        PoolOptions poolOptions = new PoolOptions().setMaxSize(settings.maxSize()).setMaxWaitQueueSize(settings.waitQueueMax());
 
-        return Pool.pool(vertx, connectOptions, poolOptions);
+        Pool pool = warmable(Pool.pool(vertx, connectOptions, poolOptions), settings.maxSize(), settings);
+        writablePools.add(pool);
+        return pool;
     }
 
-    private static void configure(Config config) {
-        port = Integer.parseInt(config.get("database.port"));
-        host = config.get("database.host");
-        database = config.get("database.name");
-        username = config.get("database.username");
-        password = config.get("database.password");
-        maxSize = Integer.parseInt(config.get("database.pool.maxsize"));
+    public static ShardRouter createShardRouter(Vertx vertx, Config config) {
+        Pool pool = createPool(vertx, config);
+        List<Pool> replicas = createReplicaPools(vertx, config);
+        List<DatabaseClient> shards = new ArrayList<>();
+        shards.add(new DatabaseClient(vertx, "primary", pool, createLanePools(vertx, config, 0),
+                new ReplicaRouter(vertx, replicas, config), config));
+        for (Pool shardPool : createShardPools(vertx, config)) {
+            int index = shards.size();
+            shards.add(new DatabaseClient(vertx, "shard-" + index, shardPool, createLanePools(vertx, config, index),
+                    new ReplicaRouter(vertx, List.of(), config), config));
+        }
+        return new ShardRouter(shards);
     }
 
-    private static void validateDatabaseProperties() {
-        if (host == null || host.isBlank()) {
-            throw new IllegalStateException("Database host is not set or is empty.");
+    public static List<Pool> createReplicaPools(Vertx vertx, Config config) {
+        Settings settings = Settings.from(config);
+
+        int replicaMaxSize = poolShare(config, "database.replica.pool.maxsize", config.get("database.pool.maxsize"));
+        if (replicaMaxSize <= 0) {
+            throw new IllegalStateException("Database replica pool max size must be greater than 0.");
         }
-        if (database == null || database.isBlank()) {
-            throw new IllegalStateException("Database name is not set or is empty.");
+        return createPools(vertx, config.get("database.replica.hosts"), replicaMaxSize, "replica", settings);
+    }
+
+    /**
+     * The primary is shard 0, so these are shards 1..N-1.
+     */
+    public static List<Pool> createShardPools(Vertx vertx, Config config) {
+        Settings settings = Settings.from(config);
+
+        List<Pool> pools = createPools(vertx, config.get("database.shard.hosts"), settings.maxSize(), "shard", settings);
+        writablePools.addAll(pools);
+        return pools;
+    }
+
+    public static List<Pool> writablePools() {
+        return writablePools;
+    }
+
+    private static List<Pool> createPools(Vertx vertx, String hosts, int poolMaxSize, String role, Settings settings) {
+        List<Pool> pools = new ArrayList<>();
+        if (hosts == null || hosts.isBlank()) {
+            return pools;
         }
-        if (username == null || username.isBlank()) {
-            throw new IllegalStateException("Database username is not set or is empty.");
+
+        for (String address : hosts.split(",")) {
+            PoolOptions poolOptions = new PoolOptions().setMaxSize(poolMaxSize).setMaxWaitQueueSize(settings.waitQueueMax());
+            pools.add(warmable(Pool.pool(vertx, connectOptions(address, role, settings), poolOptions), poolMaxSize, settings));
         }
-        if (password == null || password.isBlank()) {
-            throw new IllegalStateException("Database password is not set or is empty.");
+        return pools;
+    }
+
+    public static Map<Lane, Pool> createLanePools(Vertx vertx, Config config, int shardIndex) {
+        Settings settings = Settings.from(config);
+
+        PgConnectOptions connectOptions = shardIndex == 0
+                ? primaryConnectOptions(vertx, settings)
+                : connectOptions(config.get("database.shard.hosts").split(",")[shardIndex - 1], "shard", settings);
+
+        Map<Lane, Pool> pools = new EnumMap<>(Lane.class);
+        for (Lane lane : Lane.values()) {
+            if (lane == Lane.INTERACTIVE) {
+                continue;
+            }
+            int laneMaxSize = poolShare(config, lane.configPrefix() + ".pool.maxsize", "0");
+            if (laneMaxSize < 0) {
+                throw new IllegalStateException("Database " + lane.name().toLowerCase() + " lane pool max size must not be negative.");
+            }
+            if (laneMaxSize > 0) {
+                PoolOptions poolOptions = new PoolOptions().setMaxSize(laneMaxSize).setMaxWaitQueueSize(settings.waitQueueMax());
+                pools.put(lane, warmable(Pool.pool(vertx, connectOptions, poolOptions), laneMaxSize, settings));
+            }
         }
-        if (port <= 0 || port > 65535) {
-            throw new IllegalStateException("Database port is invalid. It must be between 1 and 65535.");
+        return pools;
+    }
+
+    private static Pool warmable(Pool pool, int poolMaxSize, Settings settings) {
+        PoolWarmup.register(pool, Math.min(settings.minIdle(), poolMaxSize));
+        return pool;
+    }
+
+    /**
+     * Splits the connection budget {@code key} between processes and service verticles.
+     */
+    public static int poolShare(Config config, String key, String defaultValue) {
+        int budget = Integer.parseInt(config.get(key, defaultValue));
+        int owners = Integer.parseInt(config.get("process.count", "1"));
+        if (ServiceTransport.from(config) == ServiceTransport.EVENT_BUS) {
+            owners *= Integer.parseInt(config.get("service.verticle.instances", "1"));
         }
-        if (maxSize <= 0) {
-            throw new IllegalStateException("Database pool max size must be greater than 0.");
+        if (owners <= 0) {
+            throw new IllegalStateException("Process count and service verticle instances must be greater than 0.");
+        }
+        return budget <= 0 ? budget : Math.max(1, budget / owners);
+    }
+
+    /**
+     * Uses the Unix domain socket in {@code database.socket.dir} when it exists, TCP otherwise.
+     */
+    public static PgConnectOptions primaryConnectOptions(Vertx vertx, Config config) {
+        return primaryConnectOptions(vertx, Settings.from(config));
+    }
+
+    private static PgConnectOptions primaryConnectOptions(Vertx vertx, Settings settings) {
+        String socketDirectory = settings.socketDirectory();
+        String host = settings.host();
+        int port = settings.port();
+        if (socketDirectory == null || socketDirectory.isBlank()) {
+            return connectOptions(host, port, settings);
+        }
+        Path socket = Path.of(socketDirectory, ".s.PGSQL." + port);
+        if (!vertx.isNativeTransportEnabled()) {
+            log.warn("*** database socket {} needs the native transport, connecting to {}:{} over TCP", socket, host, port);
+            return connectOptions(host, port, settings);
+        }
+        if (!Files.exists(socket)) {
+            log.warn("*** database socket {} does not exist, connecting to {}:{} over TCP", socket, host, port);
+            return connectOptions(host, port, settings);
+        }
+        log.info("*** connecting to the database through {}", socket);
+        return connectOptions(Path.of(socketDirectory).toAbsolutePath().toString(), port, settings);
+    }
+
+    private static PgConnectOptions connectOptions(String address, String role, Settings settings) {
+        String[] hostAndPort = address.trim().split(":");
+        if (hostAndPort.length != 2 || hostAndPort[0].isBlank()) {
+            throw new IllegalStateException("Database " + role + " address is invalid: '" + address + "'. Expected host:port.");
+        }
+        int nodePort = Integer.parseInt(hostAndPort[1]);
+        if (nodePort <= 0 || nodePort > 65535) {
+            throw new IllegalStateException("Database " + role + " port is invalid. It must be between 1 and 65535.");
+        }
+        return connectOptions(hostAndPort[0], nodePort, settings);
+    }
+
+    /**
+     * PgBouncer in transaction mode: no statement cache, no pipelining, no {@code extra_float_digits}.
+     */
+    private static PgConnectOptions connectOptions(String host, int port, Settings settings) {
+        PgConnectOptions options = new PgConnectOptions()
+                .setPort(port)
+                .setHost(host)
+                .setDatabase(settings.database())
+                .setUser(settings.username())
+                .setPassword(settings.password())
+                .setPipeliningLimit(settings.pipeliningLimit())
+                .setCachePreparedStatements(settings.statementCache());
+        if (settings.pgBouncerMode()) {
+            // unnamed statements only: a named one may be parsed on a different server connection
+            options.setUseLayer7Proxy(true)
+                    .setCachePreparedStatements(false)
+                    .setPipeliningLimit(1)
+                    .getProperties().remove("extra_float_digits");
+        }
+        return options;
+    }
+
+    public static boolean isPgBouncerMode(Config config) {
+        return Boolean.parseBoolean(config.get("database.pgbouncer.mode", "false"));
+    }
+
+    /**
+     * Read once per call from {@link Config}; service verticles on other event loops get their own copy.
+     */
+    private record Settings(int port, String host, String socketDirectory, String database, String username,
+                            String password, int maxSize, int pipeliningLimit, int waitQueueMax,
+                            boolean pgBouncerMode, boolean statementCache, int minIdle) {
+
+        static Settings from(Config config) {
+            Settings settings = new Settings(
+                    Integer.parseInt(config.get("database.port")),
+                    config.get("database.host"),
+                    config.get("database.socket.dir", ""),
+                    config.get("database.name"),
+                    config.get("database.username"),
+                    config.get("database.password"),
+                    poolShare(config, "database.pool.maxsize", null),
+                    Integer.parseInt(config.get("database.pipelining.limit", "256")),
+                    Integer.parseInt(config.get("database.pool.wait.queue.max", "100")),
+                    isPgBouncerMode(config),
+                    Boolean.parseBoolean(config.get("database.statement.cache.enabled", "false")),
+                    Integer.parseInt(config.get("database.pool.min.idle", "0")));
+            settings.validate();
+            return settings;
+        }
+
+        private void validate() {
+            if (host == null || host.isBlank()) {
+                throw new IllegalStateException("Database host is not set or is empty.");
+            }
+            if (database == null || database.isBlank()) {
+                throw new IllegalStateException("Database name is not set or is empty.");
+            }
+            if (username == null || username.isBlank()) {
+                throw new IllegalStateException("Database username is not set or is empty.");
+            }
+            if (password == null || password.isBlank()) {
+                throw new IllegalStateException("Database password is not set or is empty.");
+            }
+            if (port <= 0 || port > 65535) {
+                throw new IllegalStateException("Database port is invalid. It must be between 1 and 65535.");
+            }
+            if (maxSize <= 0) {
+                throw new IllegalStateException("Database pool max size must be greater than 0.");
+            }
+            if (pipeliningLimit <= 0) {
+                throw new IllegalStateException("Database pipelining limit must be greater than 0.");
+            }
         }
     }
 }
@@ -0,0 +1,29 @@
+package ru.milko.student_vertx.config;
+
+import io.vertx.core.ThreadingModel;
+
+public enum ExecutionMode {
+    EVENT_LOOP(ThreadingModel.EVENT_LOOP),
+    VIRTUAL_THREAD(ThreadingModel.VIRTUAL_THREAD);
+
+    private final ThreadingModel threadingModel;
+
+    ExecutionMode(ThreadingModel threadingModel) {
+        this.threadingModel = threadingModel;
+    }
+
+    public ThreadingModel threadingModel() {
+        return threadingModel;
+    }
+
+    public static ExecutionMode from(Config config) {
+        String value = config.get("execution.mode");
+        if (value == null || value.isBlank() || value.equalsIgnoreCase("event-loop")) {
+            return EVENT_LOOP;
+        }
+        if (value.equalsIgnoreCase("virtual-thread")) {
+            return VIRTUAL_THREAD;
+        }
+        throw new IllegalStateException("Unknown execution mode: " + value + ". Expected 'event-loop' or 'virtual-thread'.");
+    }
+}
@@ -0,0 +1,57 @@
+package ru.milko.student_vertx.config;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.Http2Settings;
+import io.vertx.core.http.HttpServerOptions;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Socket options of the HTTP server, from {@code transport.profile} and the {@code http.*} overrides.
+ */
+@Slf4j
+public class HttpServerConfig {
+
+    public static HttpServerOptions createOptions(Vertx vertx, Config config) {
+        boolean tuned = profile(config);
+        boolean reusePort = Boolean.parseBoolean(config.get("http.reuse.port", "false"));
+        if (reusePort && !vertx.isNativeTransportEnabled()) {
+            throw new IllegalStateException("http.reuse.port needs the native transport (transport.native=true), which is not in use: "
+                    + vertx.unavailableNativeTransportCause());
+        }
+
+        HttpServerOptions options = new HttpServerOptions()
+                .setReusePort(reusePort)
+                .setTcpNoDelay(Boolean.parseBoolean(config.get("http.tcp.nodelay", "true")))
+                .setTcpKeepAlive(Boolean.parseBoolean(config.get("http.tcp.keepalive", String.valueOf(tuned))))
+                .setAcceptBacklog(Integer.parseInt(config.get("http.accept.backlog", tuned ? "4096" : "-1")))
+                .setSendBufferSize(Integer.parseInt(config.get("http.send.buffer.size", "-1")))
+                .setReceiveBufferSize(Integer.parseInt(config.get("http.receive.buffer.size", "-1")))
+                .setIdleTimeout(Integer.parseInt(config.get("http.idle.timeout.s", tuned ? "60" : "0")))
+                .setIdleTimeoutUnit(TimeUnit.SECONDS)
+                .setHttp2ClearTextEnabled(Boolean.parseBoolean(config.get("http2.cleartext.enabled", "false")))
+                .setInitialSettings(new Http2Settings()
+                        .setMaxConcurrentStreams(Long.parseLong(config.get("http2.max.concurrent.streams", "100"))));
+
+        boolean fastOpen = Boolean.parseBoolean(config.get("http.tcp.fastopen", String.valueOf(tuned)));
+        boolean quickAck = Boolean.parseBoolean(config.get("http.tcp.quickack", String.valueOf(tuned)));
+        if (vertx.isNativeTransportEnabled()) {
+            options.setTcpFastOpen(fastOpen).setTcpQuickAck(quickAck);
+        } else if (fastOpen || quickAck) {
+            log.warn("*** TCP_FASTOPEN and TCP_QUICKACK need the native transport, running without them");
+        }
+        return options;
+    }
+
+    private static boolean profile(Config config) {
+        String profile = config.get("transport.profile", "default");
+        if (profile.equalsIgnoreCase("default")) {
+            return false;
+        }
+        if (profile.equalsIgnoreCase("tuned")) {
+            return true;
+        }
+        throw new IllegalStateException("Unknown transport profile: " + profile + ". Expected 'default' or 'tuned'.");
+    }
+}
@@ -0,0 +1,17 @@
+package ru.milko.student_vertx.config;
+
+public enum RepositoryType {
+    POSTGRES,
+    IN_MEMORY;
+
+    public static RepositoryType from(Config config) {
+        String value = config.get("repository.type");
+        if (value == null || value.isBlank() || value.equalsIgnoreCase("postgres")) {
+            return POSTGRES;
+        }
+        if (value.equalsIgnoreCase("inmemory")) {
+            return IN_MEMORY;
+        }
+        throw new IllegalStateException("Unknown repository type: " + value + ". Expected 'postgres' or 'inmemory'.");
+    }
+}
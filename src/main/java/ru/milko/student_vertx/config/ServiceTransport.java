@@ -0,0 +1,17 @@
+package ru.milko.student_vertx.config;
+
+public enum ServiceTransport {
+    DIRECT,
+    EVENT_BUS;
+
+    public static ServiceTransport from(Config config) {
+        String value = config.get("service.transport");
+        if (value == null || value.isBlank() || value.equalsIgnoreCase("direct")) {
+            return DIRECT;
+        }
+        if (value.equalsIgnoreCase("event-bus")) {
+            return EVENT_BUS;
+        }
+        throw new IllegalStateException("Unknown service transport: " + value + ". Expected 'direct' or 'event-bus'.");
+    }
+}
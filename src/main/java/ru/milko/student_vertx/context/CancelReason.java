@@ -0,0 +1,6 @@
+package ru.milko.student_vertx.context;
+
+public enum CancelReason {
+    DEADLINE,
+    CLIENT_DISCONNECTED
+}
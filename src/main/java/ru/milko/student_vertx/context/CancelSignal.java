@@ -0,0 +1,37 @@
+package ru.milko.student_vertx.context;
+
+import io.vertx.core.Context;
+
+/**
+ * Forwards the cancellation of a request to the scope a service verticle opened for it on another event loop.
+ */
+public class CancelSignal {
+    private CancelReason reason;
+    private Context context;
+    private RequestScope scope;
+
+    synchronized void cancel(CancelReason reason) {
+        if (this.reason != null) {
+            return;
+        }
+        this.reason = reason;
+        if (scope != null) {
+            RequestScope target = scope;
+            context.runOnContext(v -> target.cancelForwarded(reason));
+        }
+    }
+
+    synchronized void attach(Context context, RequestScope scope) {
+        if (reason != null) {
+            scope.cancelForwarded(reason);
+            return;
+        }
+        this.context = context;
+        this.scope = scope;
+    }
+
+    synchronized void detach() {
+        context = null;
+        scope = null;
+    }
+}
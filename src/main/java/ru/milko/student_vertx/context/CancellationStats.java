@@ -0,0 +1,56 @@
+package ru.milko.student_vertx.context;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class CancellationStats {
+    private static final Map<CancelReason, LongAdder> requests = counters();
+    private static final Map<CancelReason, LongAdder> cancelledStatements = counters();
+    private static final Map<CancelReason, LongAdder> skippedStatements = counters();
+    private static final LongAdder skippedResponses = new LongAdder();
+
+    private CancellationStats() {
+    }
+
+    static void requestCancelled(CancelReason reason, int pendingStatements) {
+        requests.get(reason).increment();
+        cancelledStatements.get(reason).add(pendingStatements);
+    }
+
+    static void statementsCancelled(CancelReason reason, int statements) {
+        cancelledStatements.get(reason).add(statements);
+    }
+
+    public static void statementSkipped(CancelReason reason) {
+        skippedStatements.get(reason).increment();
+    }
+
+    public static void responseSkipped() {
+        skippedResponses.increment();
+    }
+
+    public static long requests(CancelReason reason) {
+        return requests.get(reason).sum();
+    }
+
+    public static long cancelledStatements(CancelReason reason) {
+        return cancelledStatements.get(reason).sum();
+    }
+
+    public static long skippedStatements(CancelReason reason) {
+        return skippedStatements.get(reason).sum();
+    }
+
+    public static long skippedResponses() {
+        return skippedResponses.sum();
+    }
+
+    private static Map<CancelReason, LongAdder> counters() {
+        Map<CancelReason, LongAdder> counters = new EnumMap<>(CancelReason.class);
+        for (CancelReason reason : CancelReason.values()) {
+            counters.put(reason, new LongAdder());
+        }
+        return counters;
+    }
+}
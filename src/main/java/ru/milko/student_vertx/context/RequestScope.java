@@ -0,0 +1,223 @@
+package ru.milko.student_vertx.context;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.pgclient.PgConnection;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.SqlConnection;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.database.Lane;
+import ru.milko.student_vertx.database.QueryHandle;
+import ru.milko.student_vertx.exceptions.ClientDisconnectedException;
+import ru.milko.student_vertx.exceptions.DeadlineExceededException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-request state, kept in the locals of the request's duplicated context.
+ */
+@Slf4j
+public class RequestScope {
+    private static final String KEY = RequestScope.class.getName();
+
+    private final Map<Pool, Future<SqlConnection>> connections = new HashMap<>();
+    private final Set<QueryHandle> queries = new HashSet<>();
+    private final List<CancelSignal> signals = new ArrayList<>();
+    private final long openedNanos = System.nanoTime();
+    private long minReadLsn;
+    private long writeLsn;
+    private boolean closed;
+    private Lane lane = Lane.INTERACTIVE;
+    private long deadlineNanos;
+    private long deadlineTimerId = -1;
+    private CancelReason cancelReason;
+    private ServerTiming timing;
+    private CancelSignal signal;
+
+    public static RequestScope open() {
+        RequestScope scope = new RequestScope();
+        Context context = Vertx.currentContext();
+        if (context != null) {
+            context.putLocal(KEY, scope);
+        }
+        return scope;
+    }
+
+    public static RequestScope current() {
+        Context context = Vertx.currentContext();
+        return context == null ? null : context.getLocal(KEY);
+    }
+
+    public long openedNanos() {
+        return openedNanos;
+    }
+
+    /**
+     * @return {@code null} unless the request asked for Server-Timing
+     */
+    public ServerTiming timing() {
+        return timing;
+    }
+
+    public void timing(ServerTiming timing) {
+        this.timing = timing;
+    }
+
+    public Lane lane() {
+        return lane;
+    }
+
+    public void lane(Lane lane) {
+        this.lane = lane;
+    }
+
+    public boolean hasDeadline() {
+        return deadlineNanos != 0;
+    }
+
+    public long remainingMillis() {
+        return hasDeadline() ? (deadlineNanos - System.nanoTime()) / 1_000_000 : Long.MAX_VALUE;
+    }
+
+    long deadlineNanos() {
+        return deadlineNanos;
+    }
+
+    long deadlineTimerId() {
+        return deadlineTimerId;
+    }
+
+    void deadline(long deadlineNanos, long timerId) {
+        this.deadlineNanos = deadlineNanos;
+        this.deadlineTimerId = timerId;
+    }
+
+    public boolean isCancelled() {
+        return cancelReason != null;
+    }
+
+    public RuntimeException cancellationFailure() {
+        return cancelReason == CancelReason.DEADLINE
+                ? new DeadlineExceededException("Request deadline expired before the statement started")
+                : new ClientDisconnectedException("Client disconnected before the statement started");
+    }
+
+    public CancelReason cancelReason() {
+        return cancelReason;
+    }
+
+    public QueryHandle trackQuery() {
+        QueryHandle handle = new QueryHandle();
+        if (isCancelled()) {
+            handle.cancel();
+        } else {
+            queries.add(handle);
+        }
+        return handle;
+    }
+
+    public void untrackQuery(QueryHandle handle) {
+        queries.remove(handle);
+    }
+
+    /**
+     * @return how many statements were still pending
+     */
+    public int cancel(CancelReason reason) {
+        if (isCancelled()) {
+            return 0;
+        }
+        int pending = stop(reason);
+        CancellationStats.requestCancelled(reason, pending);
+        return pending;
+    }
+
+    /**
+     * Lets a service scope on another context be cancelled with this one.
+     */
+    public CancelSignal cancelSignal() {
+        CancelSignal signal = new CancelSignal();
+        if (isCancelled()) {
+            signal.cancel(cancelReason);
+        } else {
+            signals.add(signal);
+        }
+        return signal;
+    }
+
+    void attach(CancelSignal signal) {
+        this.signal = signal;
+        signal.attach(Vertx.currentContext(), this);
+    }
+
+    void detach() {
+        if (signal != null) {
+            signal.detach();
+            signal = null;
+        }
+    }
+
+    /**
+     * Only adds the statements; the request was counted where it was cancelled.
+     */
+    void cancelForwarded(CancelReason reason) {
+        if (!isCancelled() && !closed) {
+            CancellationStats.statementsCancelled(reason, stop(reason));
+        }
+    }
+
+    private int stop(CancelReason reason) {
+        cancelReason = reason;
+        int pending = queries.size();
+        signals.forEach(signal -> signal.cancel(reason));
+        signals.clear();
+        queries.forEach(QueryHandle::cancel);
+        queries.clear();
+        connections.values().forEach(connection -> connection.onSuccess(c -> {
+            if (c instanceof PgConnection pgConnection) {
+                pgConnection.cancelRequest()
+                        .onFailure(e -> log.warn("*** cancel request failed: {}", e.getMessage()));
+            }
+        }));
+        return pending;
+    }
+
+    public long minReadLsn() {
+        return minReadLsn;
+    }
+
+    public void requireReadLsn(long lsn) {
+        minReadLsn = Math.max(minReadLsn, lsn);
+    }
+
+    public long writeLsn() {
+        return writeLsn;
+    }
+
+    public void recordWriteLsn(long lsn) {
+        writeLsn = Math.max(writeLsn, lsn);
+        requireReadLsn(lsn);
+    }
+
+    /**
+     * @return the connection shared by the request's statements on {@code pool}, {@code null} once it has ended
+     */
+    public Future<SqlConnection> connection(Pool pool) {
+        if (closed) {
+            return null;
+        }
+        return connections.computeIfAbsent(pool, Pool::getConnection);
+    }
+
+    public void close() {
+        closed = true;
+        connections.values().forEach(connection -> connection.onSuccess(SqlConnection::close));
+        connections.clear();
+    }
+}
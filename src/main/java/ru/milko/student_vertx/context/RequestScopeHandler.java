@@ -0,0 +1,125 @@
+package ru.milko.student_vertx.context;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.database.Lane;
+import ru.milko.student_vertx.database.Lsn;
+import ru.milko.student_vertx.exceptions.DeadlineExceededException;
+import ru.milko.student_vertx.metrics.RouteMetrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Opens and closes the {@link RequestScope} of every request and applies its deadline.
+ */
+@Slf4j
+public class RequestScopeHandler {
+    public static final String CONSISTENCY_TOKEN_HEADER = "X-Consistency-Token";
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+    public static final String SERVER_TIMING_REQUEST_HEADER = "X-Server-Timing";
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static long defaultDeadlineMillis;
+    private static long maxDeadlineMillis;
+    private static boolean serverTimingEnabled;
+    private static final Map<Lane, Long> laneDeadlineMillis = new EnumMap<>(Lane.class);
+
+    public static void configure(Config config) {
+        defaultDeadlineMillis = Long.parseLong(config.get("http.deadline.ms", "0"));
+        maxDeadlineMillis = Long.parseLong(config.get("http.deadline.max.ms", "60000"));
+        serverTimingEnabled = Boolean.parseBoolean(config.get("http.server.timing.enabled", "false"));
+        for (Lane lane : Lane.values()) {
+            laneDeadlineMillis.put(lane, Long.parseLong(config.get("http.deadline." + lane.name().toLowerCase() + ".ms", "0")));
+        }
+        if (defaultDeadlineMillis < 0 || maxDeadlineMillis <= 0) {
+            throw new IllegalStateException("HTTP deadline must not be negative and max deadline must be positive.");
+        }
+    }
+
+    public static void handle(RoutingContext context) {
+        RequestScope scope = RequestScope.open();
+        if (serverTimingEnabled && context.request().getHeader(SERVER_TIMING_REQUEST_HEADER) != null) {
+            scope.timing(new ServerTiming(scope.openedNanos()));
+        }
+        applyDeadline(context, scope, defaultDeadlineMillis);
+        String timeout = context.request().getHeader(TIMEOUT_HEADER);
+        if (timeout != null) {
+            try {
+                applyDeadline(context, scope, Math.min(Long.parseLong(timeout), maxDeadlineMillis));
+            } catch (NumberFormatException e) {
+                log.warn("*** ignoring malformed {} header '{}'", TIMEOUT_HEADER, timeout);
+            }
+        }
+
+        String token = context.request().getHeader(CONSISTENCY_TOKEN_HEADER);
+        if (token != null) {
+            try {
+                scope.requireReadLsn(Lsn.parse(token));
+            } catch (IllegalArgumentException e) {
+                log.warn("*** ignoring malformed consistency token '{}', reading from primary", token);
+                scope.requireReadLsn(Long.MAX_VALUE);
+            }
+        }
+
+        context.addHeadersEndHandler(v -> {
+            if (scope.writeLsn() != Lsn.NONE) {
+                context.response().putHeader(CONSISTENCY_TOKEN_HEADER, Lsn.format(scope.writeLsn()));
+            }
+            if (scope.timing() != null) {
+                context.response().putHeader(SERVER_TIMING_HEADER, scope.timing().header(System.nanoTime()));
+            }
+        });
+        context.response().closeHandler(v -> {
+            if (context.response().ended()) {
+                return;
+            }
+            int pending = scope.cancel(CancelReason.CLIENT_DISCONNECTED);
+            log.debug("*** client disconnected from {} {}, cancelled {} pending statements",
+                    context.request().method(), context.request().path(), pending);
+        });
+        context.addEndHandler(v -> {
+            if (scope.deadlineTimerId() >= 0) {
+                context.vertx().cancelTimer(scope.deadlineTimerId());
+            }
+            scope.close();
+            RouteMetrics.record(context, scope.openedNanos());
+        });
+        context.next();
+    }
+
+    public static Handler<RoutingContext> lane(Lane lane) {
+        return context -> {
+            RequestScope scope = RequestScope.current();
+            if (scope != null) {
+                scope.lane(lane);
+                applyDeadline(context, scope, laneDeadlineMillis.getOrDefault(lane, 0L));
+            }
+            context.next();
+        };
+    }
+
+    private static void applyDeadline(RoutingContext context, RequestScope scope, long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        long deadlineNanos = System.nanoTime() + millis * 1_000_000;
+        if (scope.hasDeadline() && scope.deadlineNanos() <= deadlineNanos) {
+            return;
+        }
+        if (scope.deadlineTimerId() >= 0) {
+            context.vertx().cancelTimer(scope.deadlineTimerId());
+        }
+        long timerId = context.vertx().setTimer(millis, id -> {
+            int pending = scope.cancel(CancelReason.DEADLINE);
+            log.warn("*** {} {} exceeded its deadline of {} ms, cancelled {} pending statements",
+                    context.request().method(), context.request().path(), millis, pending);
+            if (!context.response().headWritten()) {
+                context.fail(new DeadlineExceededException("Request did not complete within " + millis + " ms"));
+            }
+        });
+        scope.deadline(deadlineNanos, timerId);
+    }
+}
@@ -0,0 +1,43 @@
+package ru.milko.student_vertx.context;
+
+import io.vertx.core.Vertx;
+import ru.milko.student_vertx.database.Lane;
+
+/**
+ * The part of a {@link RequestScope} that travels with a call to a service verticle.
+ */
+public record ScopeSnapshot(Lane lane, long minReadLsn, long deadlineMillis, ServerTiming timing,
+                            CancelSignal cancelSignal) {
+
+    public static ScopeSnapshot capture() {
+        RequestScope scope = RequestScope.current();
+        if (scope == null) {
+            return null;
+        }
+        long deadlineMillis = scope.hasDeadline() ? Math.max(scope.remainingMillis(), 1) : 0;
+        return new ScopeSnapshot(scope.lane(), scope.minReadLsn(), deadlineMillis, scope.timing(), scope.cancelSignal());
+    }
+
+    public RequestScope open(Vertx vertx) {
+        RequestScope scope = RequestScope.open();
+        scope.lane(lane);
+        scope.requireReadLsn(minReadLsn);
+        scope.timing(timing);
+        if (deadlineMillis > 0) {
+            long timerId = vertx.setTimer(deadlineMillis, id -> scope.cancel(CancelReason.DEADLINE));
+            scope.deadline(System.nanoTime() + deadlineMillis * 1_000_000, timerId);
+        }
+        if (cancelSignal != null) {
+            scope.attach(cancelSignal);
+        }
+        return scope;
+    }
+
+    public static void close(Vertx vertx, RequestScope scope) {
+        if (scope.deadlineTimerId() >= 0) {
+            vertx.cancelTimer(scope.deadlineTimerId());
+        }
+        scope.detach();
+        scope.close();
+    }
+}
@@ -0,0 +1,129 @@
+package ru.milko.student_vertx.context;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Stage timings of one request for the {@code Server-Timing} header. Shared with service verticles, hence synchronized.
+ */
+public class ServerTiming {
+    private static final int MAX_STATEMENTS = 32;
+    private static final int MAX_DESCRIPTION = 60;
+
+    private final long openedNanos;
+    private final List<Statement> statements = new ArrayList<>();
+    private int droppedStatements;
+    private long acquireNanos;
+    private int acquires;
+    private long respondNanos;
+    private long serializeNanos = -1;
+    private long compressNanos = -1;
+
+    public ServerTiming(long openedNanos) {
+        this.openedNanos = openedNanos;
+    }
+
+    public static ServerTiming current() {
+        RequestScope scope = RequestScope.current();
+        return scope == null ? null : scope.timing();
+    }
+
+    public synchronized void acquired(long waitNanos) {
+        acquireNanos += waitNanos;
+        acquires++;
+    }
+
+    public synchronized void statement(String sql, long startNanos, long endNanos) {
+        if (statements.size() < MAX_STATEMENTS) {
+            statements.add(new Statement(sql, startNanos, endNanos));
+        } else {
+            droppedStatements++;
+        }
+    }
+
+    /**
+     * Ends the {@code mapping} stage.
+     */
+    public synchronized void responding(long nanos) {
+        if (respondNanos == 0) {
+            respondNanos = nanos;
+        }
+    }
+
+    public synchronized void serialized(long nanos) {
+        serializeNanos = nanos;
+    }
+
+    public synchronized void compressed(long nanos) {
+        compressNanos = nanos;
+    }
+
+    public synchronized String header(long nowNanos) {
+        StringBuilder header = new StringBuilder();
+        if (acquires > 0) {
+            entry(header, "acquire", acquireNanos, "waits: " + acquires);
+        }
+        for (int i = 0; i < statements.size(); i++) {
+            Statement statement = statements.get(i);
+            entry(header, "sql-" + (i + 1), statement.endNanos() - statement.startNanos(), statement.sql());
+        }
+        long db = databaseNanos(Long.MAX_VALUE);
+        if (!statements.isEmpty()) {
+            String description = "statements: " + (statements.size() + droppedStatements);
+            entry(header, "db", db, droppedStatements > 0 ? description + ", not listed: " + droppedStatements : description);
+        }
+        if (respondNanos != 0) {
+            entry(header, "mapping", Math.max(0, respondNanos - openedNanos - databaseNanos(respondNanos)), null);
+        }
+        if (serializeNanos >= 0) {
+            entry(header, "serialize", serializeNanos, null);
+        }
+        if (compressNanos >= 0) {
+            entry(header, "compress", compressNanos, null);
+        }
+        entry(header, "total", nowNanos - openedNanos, null);
+        return header.toString();
+    }
+
+    /**
+     * Time until {@code untilNanos} during which at least one statement was running.
+     */
+    private long databaseNanos(long untilNanos) {
+        List<Statement> sorted = new ArrayList<>(statements);
+        sorted.sort(Comparator.comparingLong(Statement::startNanos));
+        long busy = 0;
+        long coveredUntil = Long.MIN_VALUE;
+        for (Statement statement : sorted) {
+            long start = Math.max(statement.startNanos(), coveredUntil);
+            long end = Math.min(statement.endNanos(), untilNanos);
+            if (end > start) {
+                busy += end - start;
+            }
+            coveredUntil = Math.max(coveredUntil, statement.endNanos());
+        }
+        return busy;
+    }
+
+    private static void entry(StringBuilder header, String name, long nanos, String description) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+        if (description != null) {
+            header.append(";desc=\"").append(quote(description)).append('"');
+        }
+    }
+
+    private static String quote(String description) {
+        String flat = description.replaceAll("\\s+", " ").trim();
+        if (flat.length() > MAX_DESCRIPTION) {
+            flat = flat.substring(0, MAX_DESCRIPTION) + "...";
+        }
+        return flat.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private record Statement(String sql, long startNanos, long endNanos) {
+    }
+}
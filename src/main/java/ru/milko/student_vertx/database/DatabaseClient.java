@@ -0,0 +1,241 @@
+package ru.milko.student_vertx.database;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.pgclient.PgException;
+import io.vertx.sqlclient.ClosedConnectionException;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlClient;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Tuple;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.config.DatabasePoolConfig;
+import ru.milko.student_vertx.context.CancelReason;
+import ru.milko.student_vertx.context.CancellationStats;
+import ru.milko.student_vertx.context.RequestScope;
+import ru.milko.student_vertx.context.ServerTiming;
+import ru.milko.student_vertx.exceptions.DeadlineExceededException;
+import ru.milko.student_vertx.utils.AdaptiveLimiter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Runs repository SQL: writes on the primary, reads on a replica that has caught up with the request.
+ */
+@Slf4j
+public class DatabaseClient {
+    private static final String CURRENT_LSN_QUERY = "SELECT pg_current_wal_lsn()::text";
+
+    private final DatabaseNode primary;
+    private final Map<Lane, DatabaseNode> lanes = new EnumMap<>(Lane.class);
+    private final ReplicaRouter replicaRouter;
+    private final ReadHedging hedging;
+    private final boolean connectionPerRequest;
+    private final boolean explicitTransactions;
+
+    public DatabaseClient(Vertx vertx, String name, Pool primary, Map<Lane, Pool> lanePools, ReplicaRouter replicaRouter, Config config) {
+        int maxSize = DatabasePoolConfig.poolShare(config, "database.pool.maxsize", null);
+        this.primary = DatabaseNode.primary(name, primary, new AdaptiveLimiter(vertx, name, config, "database.pool", maxSize));
+        lanePools.forEach((lane, pool) -> {
+            String laneName = name + "-" + lane.name().toLowerCase();
+            int laneMaxSize = DatabasePoolConfig.poolShare(config, lane.configPrefix() + ".pool.maxsize", null);
+            lanes.put(lane, DatabaseNode.primary(laneName, pool, new AdaptiveLimiter(vertx, laneName, config, lane.configPrefix(), laneMaxSize)));
+        });
+        this.replicaRouter = replicaRouter;
+        this.hedging = new ReadHedging(vertx, config);
+        this.connectionPerRequest = Boolean.parseBoolean(config.get("database.connection.per.request", "false"));
+        this.explicitTransactions = DatabasePoolConfig.isPgBouncerMode(config);
+    }
+
+    public Future<RowSet<Row>> read(String sql) {
+        return read(null, sql);
+    }
+
+    public Future<RowSet<Row>> read(String sql, Tuple params) {
+        return read(null, sql, params);
+    }
+
+    public Future<RowSet<Row>> read(Lane lane, String sql) {
+        long start = System.nanoTime();
+        return timed(sql, start, routeRead(lane, sql, client -> client.query(sql).execute()));
+    }
+
+    public Future<RowSet<Row>> read(Lane lane, String sql, Tuple params) {
+        long start = System.nanoTime();
+        return timed(sql, start, routeRead(lane, sql, client -> client.preparedQuery(sql).execute(params)));
+    }
+
+    /**
+     * For checks that must not see a lagging replica.
+     */
+    public Future<RowSet<Row>> readOnPrimary(String sql, Tuple params) {
+        long start = System.nanoTime();
+        return timed(sql, start, onPrimary(primaryFor(null, RequestScope.current()), client -> client.preparedQuery(sql).execute(params)));
+    }
+
+    public Future<RowSet<Row>> write(String sql, Tuple params) {
+        long start = System.nanoTime();
+        return timed(sql, start, writeOnPrimary(sql, params));
+    }
+
+    private Future<RowSet<Row>> writeOnPrimary(String sql, Tuple params) {
+        RequestScope scope = RequestScope.current();
+        DatabaseNode node = primaryFor(null, scope);
+        if (replicaRouter.isEmpty() || scope == null) {
+            return onPrimary(node, client -> client.preparedQuery(sql).execute(params));
+        }
+        // pipelined on the same connection: the LSN is read right after the write has committed
+        return withPrimaryConnection(node, scope, connection -> {
+            Future<RowSet<Row>> result = connection.preparedQuery(sql).execute(params);
+            Future<RowSet<Row>> lsn = connection.query(CURRENT_LSN_QUERY).execute();
+            return result.compose(rows -> recordCommitLsn(scope, lsn, rows));
+        });
+    }
+
+    /**
+     * Runs in an explicit transaction with {@code database.pgbouncer.mode=true}.
+     */
+    public Future<RowSet<Row>> writeInTransaction(String sql, Tuple params) {
+        if (!explicitTransactions) {
+            return write(sql, params);
+        }
+        RequestScope scope = RequestScope.current();
+        DatabaseNode node = primaryFor(null, scope);
+        long start = System.nanoTime();
+        return timed(sql, start, withPrimaryConnection(node, scope, connection -> connection.begin()
+                .compose(transaction -> connection.preparedQuery(sql).execute(params).compose(
+                        rows -> transaction.commit().map(rows),
+                        failure -> transaction.rollback().transform(ar -> Future.<RowSet<Row>>failedFuture(failure))))
+                .compose(rows -> replicaRouter.isEmpty() || scope == null
+                        ? Future.succeededFuture(rows)
+                        : recordCommitLsn(scope, connection.query(CURRENT_LSN_QUERY).execute(), rows))));
+    }
+
+    public Pool primary() {
+        return primary.pool();
+    }
+
+    public DatabaseNode primaryNode() {
+        return primary;
+    }
+
+    public ReplicaRouter replicaRouter() {
+        return replicaRouter;
+    }
+
+    public ReadHedging hedging() {
+        return hedging;
+    }
+
+    private Future<RowSet<Row>> routeRead(Lane lane, String sql, Function<SqlClient, Future<RowSet<Row>>> query) {
+        RequestScope scope = RequestScope.current();
+        DatabaseNode node = primaryFor(lane, scope);
+        if (node != primary) {
+            return onPrimary(node, query);
+        }
+        long minLsn = scope == null ? Lsn.NONE : scope.minReadLsn();
+        DatabaseNode replica = replicaRouter.select(minLsn);
+        if (replica == null) {
+            return onPrimary(primary, query);
+        }
+
+        Future<RowSet<Row>> result;
+        if (hedging.isEnabled()) {
+            // a second replica if there is one that is fresh enough, the primary otherwise
+            DatabaseNode backup = replicaRouter.select(minLsn, replica);
+            DatabaseNode second = backup == null ? primary : backup;
+            result = cancellable(handle -> hedging.execute(sql, replica, second, query, handle));
+        } else {
+            result = run(replica, query);
+        }
+        return result.recover(failure -> {
+            if (!isReplicaFailure(failure)) {
+                return Future.failedFuture(failure);
+            }
+            replica.markUnhealthy(failure);
+            log.warn("*** read on {} failed, falling back to primary: {}", replica.name(), failure.getMessage());
+            return onPrimary(primary, query);
+        });
+    }
+
+    private static Future<RowSet<Row>> timed(String sql, long start, Future<RowSet<Row>> statement) {
+        ServerTiming timing = ServerTiming.current();
+        return timing == null ? statement : statement.onComplete(ar -> timing.statement(sql, start, System.nanoTime()));
+    }
+
+    private static Future<RowSet<Row>> recordCommitLsn(RequestScope scope, Future<RowSet<Row>> lsn, RowSet<Row> rows) {
+        return lsn
+                .map(lsnRows -> {
+                    scope.recordWriteLsn(Lsn.parse(lsnRows.iterator().next().getString(0)));
+                    return rows;
+                })
+                .otherwise(failure -> {
+                    log.warn("*** could not read commit LSN, keeping reads of this request on primary: {}", failure.getMessage());
+                    scope.requireReadLsn(Long.MAX_VALUE);
+                    return rows;
+                });
+    }
+
+    private DatabaseNode primaryFor(Lane lane, RequestScope scope) {
+        Lane effective = lane != null ? lane : scope == null ? Lane.INTERACTIVE : scope.lane();
+        return lanes.getOrDefault(effective, primary);
+    }
+
+    private Future<RowSet<Row>> onPrimary(DatabaseNode node, Function<SqlClient, Future<RowSet<Row>>> query) {
+        RequestScope scope = connectionPerRequest ? RequestScope.current() : null;
+        Future<SqlConnection> connection = scope == null ? null : scope.connection(node.pool());
+        if (connection == null) {
+            return run(node, query);
+        }
+        if (scope.isCancelled()) {
+            CancellationStats.statementSkipped(scope.cancelReason());
+            return Future.failedFuture(scope.cancellationFailure());
+        }
+        return connection.compose(query::apply);
+    }
+
+    private Future<RowSet<Row>> run(DatabaseNode node, Function<SqlClient, Future<RowSet<Row>>> query) {
+        return cancellable(handle -> handle == null ? node.execute(query) : node.execute(query, handle));
+    }
+
+    private <T> Future<T> cancellable(Function<QueryHandle, Future<T>> work) {
+        RequestScope scope = RequestScope.current();
+        if (scope == null) {
+            return work.apply(null);
+        }
+        if (scope.isCancelled()) {
+            CancellationStats.statementSkipped(scope.cancelReason());
+            return Future.failedFuture(scope.cancellationFailure());
+        }
+        if (scope.remainingMillis() <= 0) {
+            CancellationStats.statementSkipped(CancelReason.DEADLINE);
+            return Future.failedFuture(new DeadlineExceededException("Request deadline expired before the statement started"));
+        }
+        QueryHandle handle = scope.trackQuery();
+        return work.apply(handle).onComplete(ar -> scope.untrackQuery(handle));
+    }
+
+    private <T> Future<T> withPrimaryConnection(DatabaseNode node, RequestScope scope, Function<SqlConnection, Future<T>> function) {
+        Future<SqlConnection> connection = connectionPerRequest && scope != null ? scope.connection(node.pool()) : null;
+        if (connection == null) {
+            return cancellable(handle -> handle == null ? node.withConnection(function) : node.withConnection(function, handle));
+        }
+        return connection.compose(function);
+    }
+
+    private static boolean isReplicaFailure(Throwable failure) {
+        if (failure instanceof PgException pgException) {
+            String sqlState = pgException.getSqlState();
+            // admin_shutdown, crash_shutdown, cannot_connect_now, serialization_failure; not query_canceled (57014)
+            return "57P01".equals(sqlState) || "57P02".equals(sqlState) || "57P03".equals(sqlState)
+                    || "40001".equals(sqlState);
+        }
+        return failure instanceof ClosedConnectionException || failure instanceof IOException;
+    }
+}
@@ -0,0 +1,147 @@
+package ru.milko.student_vertx.database;
+
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlClient;
+import io.vertx.sqlclient.SqlConnection;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.context.ServerTiming;
+import ru.milko.student_vertx.exceptions.QueryCancelledException;
+import ru.milko.student_vertx.utils.AdaptiveLimiter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * One Postgres server (the primary or a replica) with its pool, concurrency limiter, health and replay position.
+ */
+@Slf4j
+public class DatabaseNode {
+    private static final List<DatabaseNode> instances = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final Pool pool;
+    private final boolean replica;
+    private final AdaptiveLimiter limiter;
+    private volatile boolean healthy = true;
+    private volatile long replayLsn;
+
+    private DatabaseNode(String name, Pool pool, boolean replica, AdaptiveLimiter limiter) {
+        this.name = name;
+        this.pool = pool;
+        this.replica = replica;
+        this.limiter = limiter;
+        // the primary is by definition up to date; a replica is not trusted before its first probe
+        this.replayLsn = replica ? Lsn.NONE : Long.MAX_VALUE;
+        instances.add(this);
+    }
+
+    public static List<DatabaseNode> instances() {
+        return instances;
+    }
+
+    public static DatabaseNode primary(String name, Pool pool, AdaptiveLimiter limiter) {
+        return new DatabaseNode(name, pool, false, limiter);
+    }
+
+    public static DatabaseNode replica(String name, Pool pool, AdaptiveLimiter limiter) {
+        return new DatabaseNode(name, pool, true, limiter);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Pool pool() {
+        return pool;
+    }
+
+    public boolean isReplica() {
+        return replica;
+    }
+
+    public AdaptiveLimiter limiter() {
+        return limiter;
+    }
+
+    public int inFlight() {
+        return limiter.inFlight() + limiter.queueSize();
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public long replayLsn() {
+        return replayLsn;
+    }
+
+    boolean isUsable(long minLsn) {
+        return healthy && (minLsn == Lsn.NONE || replayLsn >= minLsn);
+    }
+
+    public Future<RowSet<Row>> execute(Function<SqlClient, Future<RowSet<Row>>> query) {
+        return limited(() -> query.apply(pool));
+    }
+
+    public <T> Future<T> withConnection(Function<SqlConnection, Future<T>> function) {
+        return limited(() -> pool.withConnection(function));
+    }
+
+    public <T> Future<T> withConnection(Function<SqlConnection, Future<T>> function, QueryHandle handle) {
+        return limited(() -> pool.getConnection()
+                .compose(connection -> {
+                    if (!handle.attach(connection)) {
+                        connection.close();
+                        return Future.<T>failedFuture(new QueryCancelledException("Query on " + name + " was cancelled before it started"));
+                    }
+                    return function.apply(connection).onComplete(ar -> {
+                        handle.complete();
+                        connection.close();
+                    });
+                }));
+    }
+
+    public Future<RowSet<Row>> execute(Function<SqlClient, Future<RowSet<Row>>> query, QueryHandle handle) {
+        return withConnection(query::apply, handle);
+    }
+
+    private <T> Future<T> limited(Supplier<Future<T>> work) {
+        ServerTiming timing = ServerTiming.current();
+        long requested = timing == null ? 0 : System.nanoTime();
+        return limiter.acquire().compose(permit -> {
+            long start = System.nanoTime();
+            if (timing != null) {
+                timing.acquired(start - requested);
+            }
+            return work.get().onComplete(ar -> limiter.release(ar.succeeded() ? System.nanoTime() - start : -1));
+        });
+    }
+
+    public void markUnhealthy(Throwable cause) {
+        if (healthy) {
+            log.warn("*** {} marked unhealthy: {}", name, cause.getMessage());
+        }
+        healthy = false;
+    }
+
+    void probe() {
+        pool.query("SELECT pg_last_wal_replay_lsn()::text").execute().onComplete(ar -> {
+            if (ar.succeeded()) {
+                String lsn = ar.result().iterator().next().getString(0);
+                // NULL means the server is not in recovery, i.e. it is always up to date
+                replayLsn = lsn == null ? Long.MAX_VALUE : Lsn.parse(lsn);
+                if (!healthy) {
+                    log.info("*** {} is healthy again", name);
+                }
+                healthy = true;
+            } else {
+                markUnhealthy(ar.cause());
+            }
+        });
+    }
+}
@@ -4,18 +4,47 @@ import org.flywaydb.core.Flyway;
 import org.flywaydb.core.api.FlywayException;
 import ru.milko.student_vertx.config.Config;
 
-import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 public class FlywayMigration {
     private static String url;
     private static String username;
     private static String password;
+    private static volatile boolean migrated;
 
+    /**
+     * Each database gets its shard index and the shard count as placeholders for the id sequence.
+     */
     public static void migrate(Config config) {
         configure(config);
 
+        List<String> urls = new ArrayList<>();
+        urls.add(url);
+        String shardHosts = config.get("database.shard.hosts");
+        if (shardHosts != null && !shardHosts.isBlank()) {
+            for (String address : shardHosts.split(",")) {
+                urls.add("jdbc:postgresql://" + address.trim() + "/" + config.get("database.name"));
+            }
+        }
+
+        for (int i = 0; i < urls.size(); i++) {
+            migrate(urls.get(i), i, urls.size());
+        }
+        migrated = true;
+    }
+
+    public static boolean isMigrated() {
+        return migrated;
+    }
+
+    private static void migrate(String url, int shardIndex, int shardCount) {
         Flyway flyway = Flyway.configure()
                 .dataSource(url, username, password)
+                .placeholders(Map.of(
+                        "shardIndex", String.valueOf(shardIndex),
+                        "shardCount", String.valueOf(shardCount)))
 //                .locations("filesystem:src/main/resources/db/migration")
                 .validateMigrationNaming(true)
 //                .sqlMigrationPrefix("V")
@@ -0,0 +1,13 @@
+package ru.milko.student_vertx.database;
+
+/**
+ * Workload lane of a statement; a lane without its own pool shares the interactive one.
+ */
+public enum Lane {
+    INTERACTIVE,
+    BULK;
+
+    public String configPrefix() {
+        return "database.lane." + name().toLowerCase();
+    }
+}
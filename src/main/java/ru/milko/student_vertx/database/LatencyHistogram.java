@@ -0,0 +1,78 @@
+package ru.milko.student_vertx.database;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with about 19% resolution; counts decay every {@code decayEvery} samples.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 97;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong samplesSinceDecay = new AtomicLong();
+    private final long decayEvery;
+
+    public LatencyHistogram(long decayEvery) {
+        this.decayEvery = decayEvery;
+    }
+
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(nanos / 1000));
+        total.incrementAndGet();
+        if (samplesSinceDecay.incrementAndGet() >= decayEvery) {
+            samplesSinceDecay.set(0);
+            decay();
+        }
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    /**
+     * @return microseconds, or -1 without samples
+     */
+    public long percentileMicros(double quantile) {
+        long samples = total.get();
+        if (samples == 0) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(samples * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBoundMicros(i);
+            }
+        }
+        return upperBoundMicros(BUCKETS - 1);
+    }
+
+    private void decay() {
+        long remaining = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long halved = counts.get(i) >> 1;
+            counts.set(i, halved);
+            remaining += halved;
+        }
+        total.set(remaining);
+    }
+
+    static int bucketOf(long micros) {
+        if (micros <= 1) {
+            return 0;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        // two bits below the leading one select the quarter inside the power of two
+        int quarter = exponent >= 2 ? (int) ((micros >>> (exponent - 2)) & 0b11) : (int) ((micros << (2 - exponent)) & 0b11);
+        return Math.min(exponent * 4 + quarter, BUCKETS - 1);
+    }
+
+    static long upperBoundMicros(int bucket) {
+        int exponent = bucket / 4;
+        int quarter = bucket % 4;
+        return (1L << exponent) + (((1L << exponent) * (quarter + 1)) >> 2);
+    }
+}
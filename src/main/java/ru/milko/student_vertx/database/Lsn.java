@@ -0,0 +1,31 @@
+package ru.milko.student_vertx.database;
+
+/**
+ * Postgres {@code pg_lsn} values ({@code "16/B374D848"}) packed into a comparable {@code long}.
+ */
+public final class Lsn {
+    public static final long NONE = 0L;
+
+    private Lsn() {
+    }
+
+    public static long parse(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        int slash = value.indexOf('/');
+        if (slash <= 0 || slash == value.length() - 1) {
+            throw new IllegalArgumentException("Invalid LSN: " + value);
+        }
+        long high = Long.parseLong(value.substring(0, slash), 16);
+        long low = Long.parseLong(value.substring(slash + 1), 16);
+        if (high > 0xFFFFFFFFL || low > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("Invalid LSN: " + value);
+        }
+        return (high << 32) | low;
+    }
+
+    public static String format(long lsn) {
+        return Long.toHexString(lsn >>> 32).toUpperCase() + "/" + Long.toHexString(lsn & 0xFFFFFFFFL).toUpperCase();
+    }
+}
@@ -0,0 +1,84 @@
+package ru.milko.student_vertx.database;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.SqlConnection;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Opens {@code database.pool.min.idle} connections per pool and prepares the repository statements on them.
+ */
+@Slf4j
+public final class PoolWarmup {
+    private static final List<RegisteredPool> pools = new CopyOnWriteArrayList<>();
+    private static final Set<String> statements = ConcurrentHashMap.newKeySet();
+
+    private PoolWarmup() {
+    }
+
+    public static void register(Pool pool, int connections) {
+        if (connections > 0) {
+            pools.add(new RegisteredPool(pool, connections, Vertx.currentContext()));
+        }
+    }
+
+    public static void prepare(Collection<String> sqls) {
+        statements.addAll(sqls);
+    }
+
+    public static Future<Void> warmUp() {
+        List<String> sqls = List.copyOf(statements);
+        List<Future<Void>> warmed = new ArrayList<>(pools.size());
+        for (RegisteredPool registered : pools) {
+            warmed.add(onContext(registered.context(), () -> warm(registered, sqls)));
+        }
+        return Future.join(warmed)
+                .onSuccess(v -> log.info("*** warmed {} pools, {} statements per connection", pools.size(), sqls.size()))
+                .mapEmpty();
+    }
+
+    private static Future<Void> warm(RegisteredPool registered, List<String> sqls) {
+        List<Future<Void>> connections = new ArrayList<>(registered.connections());
+        for (int i = 0; i < registered.connections(); i++) {
+            connections.add(registered.pool().getConnection()
+                    .compose(connection -> prepare(connection, sqls, 0).eventually(() -> connection.close())));
+        }
+        return Future.join(connections)
+                .onFailure(e -> log.warn("*** pool warmup incomplete: {}", e.getMessage()))
+                .<Void>mapEmpty()
+                .otherwiseEmpty();
+    }
+
+    private static Future<Void> prepare(SqlConnection connection, List<String> sqls, int index) {
+        if (index == sqls.size()) {
+            return Future.succeededFuture();
+        }
+        return connection.prepare(sqls.get(index))
+                .<Void>mapEmpty()
+                .recover(e -> Future.succeededFuture())
+                .compose(v -> prepare(connection, sqls, index + 1));
+    }
+
+    private static Future<Void> onContext(Context context, Supplier<Future<Void>> work) {
+        if (context == null) {
+            return work.get();
+        }
+        Promise<Void> promise = Promise.promise();
+        context.runOnContext(v -> work.get().onComplete(promise));
+        return promise.future();
+    }
+
+    private record RegisteredPool(Pool pool, int connections, Context context) {
+    }
+}
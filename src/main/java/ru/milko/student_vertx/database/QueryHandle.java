@@ -0,0 +1,43 @@
+package ru.milko.student_vertx.database;
+
+import io.vertx.pgclient.PgConnection;
+import io.vertx.sqlclient.SqlConnection;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cancels a query while it waits for a connection or, through the Postgres cancel protocol, while it runs.
+ */
+@Slf4j
+public class QueryHandle {
+    private SqlConnection connection;
+    private boolean cancelled;
+    private boolean done;
+
+    boolean attach(SqlConnection connection) {
+        if (cancelled) {
+            return false;
+        }
+        this.connection = connection;
+        return true;
+    }
+
+    void complete() {
+        done = true;
+        connection = null;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        if (cancelled || done) {
+            return;
+        }
+        cancelled = true;
+        if (connection instanceof PgConnection pgConnection) {
+            pgConnection.cancelRequest()
+                    .onFailure(e -> log.warn("*** cancel request failed: {}", e.getMessage()));
+        }
+    }
+}
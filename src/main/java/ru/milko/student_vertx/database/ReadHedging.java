@@ -0,0 +1,169 @@
+package ru.milko.student_vertx.database;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlClient;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.context.RequestScope;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Repeats a read on a second node after its p95, within a token budget of {@code database.hedging.budget.percent}.
+ */
+@Slf4j
+public class ReadHedging {
+    private static final long TOKEN = 1_000_000L;
+    private static final int MAX_STATEMENTS = 1024;
+
+    private final Vertx vertx;
+    private final boolean enabled;
+    private final long refillPerRead;
+    private final long maxTokens;
+    private final long minSamples;
+    private final long minDelayMillis;
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong tokens = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+
+    public ReadHedging(Vertx vertx, Config config) {
+        this.vertx = vertx;
+        this.enabled = Boolean.parseBoolean(config.get("database.hedging.enabled", "false"));
+        double budgetPercent = Double.parseDouble(config.get("database.hedging.budget.percent", "5"));
+        if (budgetPercent < 0 || budgetPercent > 100) {
+            throw new IllegalStateException("Hedging budget must be between 0 and 100 percent.");
+        }
+        this.refillPerRead = (long) (TOKEN * budgetPercent / 100);
+        this.maxTokens = 10 * TOKEN;
+        this.minSamples = Long.parseLong(config.get("database.hedging.min.samples", "100"));
+        this.minDelayMillis = Long.parseLong(config.get("database.hedging.min.delay.ms", "1"));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long hedgeCount() {
+        return hedges.get();
+    }
+
+    public void record(String statement, long nanos) {
+        LatencyHistogram histogram = latencies.get(statement);
+        if (histogram == null) {
+            if (latencies.size() >= MAX_STATEMENTS) {
+                return;
+            }
+            histogram = latencies.computeIfAbsent(statement, k -> new LatencyHistogram(10_000));
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * @param firstHandle the request's handle for the first attempt, {@code null} outside a request
+     */
+    public Future<RowSet<Row>> execute(String statement, DatabaseNode first, DatabaseNode second,
+                                       Function<SqlClient, Future<RowSet<Row>>> query, QueryHandle firstHandle) {
+        refill();
+        long start = System.nanoTime();
+        RequestScope scope = RequestScope.current();
+        if (firstHandle == null) {
+            firstHandle = new QueryHandle();
+        }
+        Future<RowSet<Row>> firstResult = first.execute(query, firstHandle)
+                .onSuccess(rows -> record(statement, System.nanoTime() - start));
+
+        long delay = hedgeDelayMillis(statement);
+        if (delay < 0) {
+            return firstResult;
+        }
+
+        Race race = new Race(firstHandle);
+        long timerId = vertx.setTimer(delay, id -> {
+            if (race.isDecided() || (scope != null && scope.isCancelled()) || !tryAcquire()) {
+                return;
+            }
+            hedges.incrementAndGet();
+            log.debug("*** hedging read on {} after {} ms", second.name(), delay);
+            QueryHandle secondHandle = scope == null ? new QueryHandle() : scope.trackQuery();
+            race.secondHandle = secondHandle;
+            second.execute(query, secondHandle).onComplete(ar -> {
+                if (scope != null) {
+                    scope.untrackQuery(secondHandle);
+                }
+                race.complete(ar, false);
+            });
+        });
+        firstResult.onComplete(ar -> {
+            vertx.cancelTimer(timerId);
+            race.complete(ar, true);
+        });
+        return race.promise.future();
+    }
+
+    private long hedgeDelayMillis(String statement) {
+        LatencyHistogram histogram = latencies.get(statement);
+        if (histogram == null || histogram.count() < minSamples) {
+            return -1;
+        }
+        return Math.max(minDelayMillis, histogram.percentileMicros(0.95) / 1000);
+    }
+
+    private void refill() {
+        tokens.getAndUpdate(current -> Math.min(maxTokens, current + refillPerRead));
+    }
+
+    private boolean tryAcquire() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    private static class Race {
+        private final Promise<RowSet<Row>> promise = Promise.promise();
+        private final QueryHandle firstHandle;
+        private QueryHandle secondHandle;
+        private boolean firstDone;
+        private boolean secondDone;
+
+        Race(QueryHandle firstHandle) {
+            this.firstHandle = firstHandle;
+        }
+
+        boolean isDecided() {
+            return promise.future().isComplete();
+        }
+
+        void complete(AsyncResult<RowSet<Row>> result, boolean fromFirst) {
+            if (fromFirst) {
+                firstDone = true;
+            } else {
+                secondDone = true;
+            }
+            if (result.succeeded()) {
+                QueryHandle loser = fromFirst ? secondHandle : firstHandle;
+                if (promise.tryComplete(result.result()) && loser != null) {
+                    loser.cancel();
+                }
+                return;
+            }
+            // a failure only decides the race when the other attempt cannot succeed any more
+            boolean otherRunning = fromFirst ? secondHandle != null && !secondDone : !firstDone;
+            if (!otherRunning) {
+                promise.tryFail(result.cause());
+            }
+        }
+    }
+}
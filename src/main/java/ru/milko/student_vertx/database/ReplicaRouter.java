@@ -0,0 +1,107 @@
+package ru.milko.student_vertx.database;
+
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Pool;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.config.DatabasePoolConfig;
+import ru.milko.student_vertx.utils.AdaptiveLimiter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks a healthy replica for a read; the periodic probe also records its replay LSN.
+ */
+@Slf4j
+public class ReplicaRouter {
+    public enum Strategy {
+        ROUND_ROBIN,
+        LEAST_LOADED;
+
+        static Strategy from(String value) {
+            return switch (value.toLowerCase()) {
+                case "round-robin" -> ROUND_ROBIN;
+                case "least-loaded" -> LEAST_LOADED;
+                default -> throw new IllegalStateException("Unknown replica strategy: " + value + ". Expected 'round-robin' or 'least-loaded'.");
+            };
+        }
+    }
+
+    private final List<DatabaseNode> replicas = new ArrayList<>();
+    private final Strategy strategy;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRouter(Vertx vertx, List<Pool> pools, Config config) {
+        this.strategy = Strategy.from(config.get("database.replica.strategy", "round-robin"));
+        int maxSize = DatabasePoolConfig.poolShare(config, "database.replica.pool.maxsize", config.get("database.pool.maxsize"));
+        for (int i = 0; i < pools.size(); i++) {
+            String name = "replica-" + i;
+            replicas.add(DatabaseNode.replica(name, pools.get(i), new AdaptiveLimiter(vertx, name, config, "database.pool", maxSize)));
+        }
+
+        long probeInterval = Long.parseLong(probeInterval(config));
+        if (!replicas.isEmpty()) {
+            vertx.setPeriodic(probeInterval, id -> replicas.forEach(DatabaseNode::probe));
+        }
+    }
+
+    /**
+     * {@code database.replica.health.interval.ms} is the old name of the setting.
+     */
+    private static String probeInterval(Config config) {
+        String legacy = config.get("database.replica.health.interval.ms");
+        if (legacy == null || legacy.isBlank()) {
+            return config.get("database.replica.probe.interval.ms", "100");
+        }
+        log.warn("*** database.replica.health.interval.ms is deprecated, use database.replica.probe.interval.ms");
+        return legacy;
+    }
+
+    /**
+     * @return {@code null} when reads should go to the primary
+     */
+    public DatabaseNode select(long minLsn) {
+        return select(minLsn, null);
+    }
+
+    public DatabaseNode select(long minLsn, DatabaseNode excluded) {
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        return switch (strategy) {
+            case ROUND_ROBIN -> selectRoundRobin(minLsn, excluded);
+            case LEAST_LOADED -> selectLeastLoaded(minLsn, excluded);
+        };
+    }
+
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    public List<DatabaseNode> replicas() {
+        return replicas;
+    }
+
+    private DatabaseNode selectRoundRobin(long minLsn, DatabaseNode excluded) {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            DatabaseNode replica = replicas.get((start + i) % replicas.size());
+            if (replica != excluded && replica.isUsable(minLsn)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private DatabaseNode selectLeastLoaded(long minLsn, DatabaseNode excluded) {
+        DatabaseNode best = null;
+        for (DatabaseNode replica : replicas) {
+            if (replica != excluded && replica.isUsable(minLsn) && (best == null || replica.inFlight() < best.inFlight())) {
+                best = replica;
+            }
+        }
+        return best;
+    }
+}
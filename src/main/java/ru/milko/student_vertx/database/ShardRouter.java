@@ -0,0 +1,133 @@
+package ru.milko.student_vertx.database;
+
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Students live on shard {@code id mod N}; reference tables are copied to every shard.
+ */
+@Slf4j
+public class ShardRouter {
+    private final List<DatabaseClient> shards;
+
+    public ShardRouter(List<DatabaseClient> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("At least one database shard is required.");
+        }
+        this.shards = List.copyOf(shards);
+    }
+
+    public static ShardRouter single(DatabaseClient client) {
+        return new ShardRouter(List.of(client));
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public DatabaseClient home() {
+        return shards.get(0);
+    }
+
+    public List<DatabaseClient> shards() {
+        return shards;
+    }
+
+    public int shardIndexOf(long studentId) {
+        return Math.floorMod(studentId, shards.size());
+    }
+
+    public DatabaseClient shardOf(long studentId) {
+        return shards.get(shardIndexOf(studentId));
+    }
+
+    /**
+     * Hashing the name sends concurrent inserts of one name to the shard whose unique index decides the race.
+     */
+    public int shardIndexForName(String name) {
+        return Math.floorMod(name.hashCode(), shards.size());
+    }
+
+    public Map<Integer, List<Long>> groupByShard(List<Long> studentIds) {
+        Map<Integer, List<Long>> idsByShard = new LinkedHashMap<>();
+        for (Long studentId : studentIds) {
+            idsByShard.computeIfAbsent(shardIndexOf(studentId), k -> new ArrayList<>()).add(studentId);
+        }
+        return idsByShard;
+    }
+
+    public <T> Future<List<T>> scatter(Function<DatabaseClient, Future<T>> query) {
+        List<Future<T>> results = new ArrayList<>(shards.size());
+        for (DatabaseClient shard : shards) {
+            results.add(query.apply(shard));
+        }
+        return Future.all(results).map(all -> all.list());
+    }
+
+    /**
+     * Copies run one shard at a time; a failure fails the write, which is idempotent and can be repeated.
+     *
+     * @return the result of the home shard
+     */
+    public Future<RowSet<Row>> writeReference(String sql, Tuple params) {
+        return home().write(sql, params)
+                .compose(rows -> copyToOtherShards(sql, params, DatabaseClient::write).map(rows));
+    }
+
+    public Future<RowSet<Row>> writeReferenceInTransaction(String sql, Tuple params) {
+        return home().writeInTransaction(sql, params)
+                .compose(rows -> copyToOtherShards(sql, params, DatabaseClient::writeInTransaction).map(rows));
+    }
+
+    /**
+     * {@code copySql} gets the id generated by {@code insertSql} on the home shard appended to {@code params}.
+     * If a copy fails, {@code deleteSql} removes the row again from every shard that has it.
+     */
+    public Future<RowSet<Row>> insertReference(String insertSql, String copySql, String deleteSql, Tuple params) {
+        return home().write(insertSql, params).compose(rows -> {
+            if (shards.size() == 1) {
+                return Future.succeededFuture(rows);
+            }
+            long id = rows.iterator().next().getLong("id");
+            Tuple copyParams = Tuple.tuple();
+            for (int i = 0; i < params.size(); i++) {
+                copyParams.addValue(params.getValue(i));
+            }
+            copyParams.addLong(id);
+            return copyToOtherShards(copySql, copyParams, DatabaseClient::write)
+                    .recover(failure -> deleteFromAllShards(deleteSql, id)
+                            .transform(ar -> Future.<Void>failedFuture(failure)))
+                    .map(rows);
+        });
+    }
+
+    private Future<Void> copyToOtherShards(String sql, Tuple params, Write write) {
+        Future<Void> copies = Future.succeededFuture();
+        for (DatabaseClient shard : shards.subList(1, shards.size())) {
+            copies = copies.compose(v -> write.apply(shard, sql, params).mapEmpty());
+        }
+        return copies.onFailure(e -> log.error("*** reference write failed on a copy, shards differ until it is repeated: {}", e.getMessage()));
+    }
+
+    private Future<Void> deleteFromAllShards(String deleteSql, long id) {
+        Future<Void> deletes = Future.succeededFuture();
+        for (int i = shards.size() - 1; i >= 0; i--) {
+            DatabaseClient shard = shards.get(i);
+            deletes = deletes.compose(v -> shard.write(deleteSql, Tuple.of(id)).mapEmpty());
+        }
+        return deletes.onFailure(e -> log.error("*** could not remove reference row {} after a failed copy: {}", id, e.getMessage()));
+    }
+
+    private interface Write {
+        Future<RowSet<Row>> apply(DatabaseClient shard, String sql, Tuple params);
+    }
+}
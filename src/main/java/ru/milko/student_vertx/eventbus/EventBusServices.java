@@ -0,0 +1,131 @@
+package ru.milko.student_vertx.eventbus;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.MessageConsumer;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.context.RequestScope;
+import ru.milko.student_vertx.context.ScopeSnapshot;
+import ru.milko.student_vertx.database.Lsn;
+import ru.milko.student_vertx.service.CourseService;
+import ru.milko.student_vertx.service.DepartmentService;
+import ru.milko.student_vertx.service.Services;
+import ru.milko.student_vertx.service.StudentService;
+import ru.milko.student_vertx.service.TeacherService;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Service proxies over the event bus; arguments and DTOs are passed by reference.
+ */
+public class EventBusServices {
+    public static final String STUDENT_ADDRESS = "service.student";
+    public static final String COURSE_ADDRESS = "service.course";
+    public static final String TEACHER_ADDRESS = "service.teacher";
+    public static final String DEPARTMENT_ADDRESS = "service.department";
+
+    private static final DeliveryOptions REPLY_OPTIONS = new DeliveryOptions().setCodecName(LocalCodec.NAME);
+
+    public static void registerCodec(Vertx vertx) {
+        // a redeployed verticle registers it again
+        vertx.eventBus().unregisterCodec(LocalCodec.NAME);
+        vertx.eventBus().registerCodec(new LocalCodec());
+    }
+
+    public static Services proxies(Vertx vertx, Config config) {
+        DeliveryOptions options = new DeliveryOptions()
+                .setCodecName(LocalCodec.NAME)
+                .setLocalOnly(true)
+                .setSendTimeout(Long.parseLong(config.get("service.eventbus.timeout.ms", "30000")));
+        return new Services(
+                proxy(vertx, StudentService.class, STUDENT_ADDRESS, options),
+                proxy(vertx, CourseService.class, COURSE_ADDRESS, options),
+                proxy(vertx, TeacherService.class, TEACHER_ADDRESS, options),
+                proxy(vertx, DepartmentService.class, DEPARTMENT_ADDRESS, options));
+    }
+
+    public static List<MessageConsumer<ServiceCall>> register(Vertx vertx, Services services) {
+        return List.of(
+                register(vertx, STUDENT_ADDRESS, StudentService.class, services.student()),
+                register(vertx, COURSE_ADDRESS, CourseService.class, services.course()),
+                register(vertx, TEACHER_ADDRESS, TeacherService.class, services.teacher()),
+                register(vertx, DEPARTMENT_ADDRESS, DepartmentService.class, services.department()));
+    }
+
+    private static <S> S proxy(Vertx vertx, Class<S> type, String address, DeliveryOptions options) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> self == args[0];
+                    case "hashCode" -> System.identityHashCode(self);
+                    default -> type.getSimpleName() + "@" + address;
+                };
+            }
+            RequestScope scope = RequestScope.current();
+            ServiceCall call = new ServiceCall(signature(method), args == null ? new Object[0] : args, ScopeSnapshot.capture());
+            return vertx.eventBus().<ServiceReply>request(address, call, options)
+                    .compose(message -> {
+                        ServiceReply reply = message.body();
+                        if (scope != null && reply.writeLsn() != Lsn.NONE) {
+                            scope.recordWriteLsn(reply.writeLsn());
+                        }
+                        return reply.failure() == null
+                                ? Future.succeededFuture(reply.value())
+                                : Future.failedFuture(reply.failure());
+                    });
+        });
+        return type.cast(proxy);
+    }
+
+    private static <S> MessageConsumer<ServiceCall> register(Vertx vertx, String address, Class<S> type, S service) {
+        Map<String, Method> methods = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            methods.put(signature(method), method);
+        }
+        return vertx.eventBus().<ServiceCall>localConsumer(address, message -> {
+            ServiceCall call = message.body();
+            RequestScope scope = call.scope() == null ? null : call.scope().open(vertx);
+            invoke(service, methods.get(call.method()), call.args())
+                    .onComplete(ar -> {
+                        long writeLsn = Lsn.NONE;
+                        if (scope != null) {
+                            writeLsn = scope.writeLsn();
+                            ScopeSnapshot.close(vertx, scope);
+                        }
+                        message.reply(new ServiceReply(ar.result(), ar.cause(), writeLsn), REPLY_OPTIONS);
+                    });
+        });
+    }
+
+    /**
+     * Name and parameter types, so overloads do not collide.
+     */
+    private static String signature(Method method) {
+        StringJoiner signature = new StringJoiner(",", method.getName() + "(", ")");
+        for (Class<?> parameter : method.getParameterTypes()) {
+            signature.add(parameter.getName());
+        }
+        return signature.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Future<Object> invoke(Object service, Method method, Object[] args) {
+        if (method == null) {
+            return Future.failedFuture(new UnsupportedOperationException("Unknown service method"));
+        }
+        try {
+            return (Future<Object>) method.invoke(service, args);
+        } catch (InvocationTargetException e) {
+            return Future.failedFuture(e.getCause());
+        } catch (IllegalAccessException e) {
+            return Future.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ru.milko.student_vertx.eventbus;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * Passes bodies by reference; senders must not change them afterwards.
+ */
+public class LocalCodec implements MessageCodec<Object, Object> {
+    public static final String NAME = "local";
+
+    @Override
+    public void encodeToWire(Buffer buffer, Object body) {
+        throw new UnsupportedOperationException("The local codec cannot send messages to other JVMs");
+    }
+
+    @Override
+    public Object decodeFromWire(int pos, Buffer buffer) {
+        throw new UnsupportedOperationException("The local codec cannot receive messages from other JVMs");
+    }
+
+    @Override
+    public Object transform(Object body) {
+        return body;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+}
@@ -0,0 +1,6 @@
+package ru.milko.student_vertx.eventbus;
+
+import ru.milko.student_vertx.context.ScopeSnapshot;
+
+public record ServiceCall(String method, Object[] args, ScopeSnapshot scope) {
+}
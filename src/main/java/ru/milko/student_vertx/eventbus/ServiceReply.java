@@ -0,0 +1,4 @@
+package ru.milko.student_vertx.eventbus;
+
+public record ServiceReply(Object value, Throwable failure, long writeLsn) {
+}
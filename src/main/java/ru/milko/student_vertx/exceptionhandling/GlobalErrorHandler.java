@@ -3,6 +3,10 @@ package ru.milko.student_vertx.exceptionhandling;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.pgclient.PgException;
+import ru.milko.student_vertx.exceptions.ConstraintViolationException;
+import ru.milko.student_vertx.exceptions.DeadlineExceededException;
+import ru.milko.student_vertx.exceptions.OverloadedException;
+import ru.milko.student_vertx.exceptions.DuplicateFieldException;
 import ru.milko.student_vertx.exceptions.EntityNotFoundException;
 
 import java.time.LocalDateTime;
@@ -10,13 +14,24 @@ import java.time.LocalDateTime;
 public class GlobalErrorHandler {
     public static void handle(RoutingContext context) {
         System.out.println("*** in GlobalErrorHandler");
+        if (context.response().headWritten() || context.response().closed()) {
+            // the request was already answered, e.g. with 504 when its deadline expired, or the client is gone
+            return;
+        }
         Throwable failure = context.failure();
         int statusCode = context.statusCode() > 0 ? context.statusCode() : 500;
 
-        if (failure instanceof PgException) {
+        if (failure instanceof PgException
+                || failure instanceof DuplicateFieldException
+                || failure instanceof ConstraintViolationException) {
             statusCode = 400;
         } else if (failure instanceof EntityNotFoundException) {
             statusCode = 404;
+        } else if (failure instanceof DeadlineExceededException) {
+            statusCode = 504;
+        } else if (failure instanceof OverloadedException) {
+            statusCode = 503;
+            context.response().putHeader("Retry-After", "1");
         }
 
         String errorType = (failure != null) ? failure.getClass().getSimpleName() : "UnknownError";
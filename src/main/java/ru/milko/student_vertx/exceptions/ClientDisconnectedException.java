@@ -0,0 +1,7 @@
+package ru.milko.student_vertx.exceptions;
+
+public class ClientDisconnectedException extends RuntimeException {
+    public ClientDisconnectedException(String message) {
+        super(message);
+    }
+}
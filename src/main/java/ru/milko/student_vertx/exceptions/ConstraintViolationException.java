@@ -0,0 +1,7 @@
+package ru.milko.student_vertx.exceptions;
+
+public class ConstraintViolationException extends RuntimeException{
+    public ConstraintViolationException(String message) {
+        super(message);
+    }
+}
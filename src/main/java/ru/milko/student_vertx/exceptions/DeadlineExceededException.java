@@ -0,0 +1,7 @@
+package ru.milko.student_vertx.exceptions;
+
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
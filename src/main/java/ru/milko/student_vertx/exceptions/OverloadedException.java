@@ -0,0 +1,7 @@
+package ru.milko.student_vertx.exceptions;
+
+public class OverloadedException extends RuntimeException {
+    public OverloadedException(String message) {
+        super(message);
+    }
+}
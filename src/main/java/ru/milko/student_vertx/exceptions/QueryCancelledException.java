@@ -0,0 +1,7 @@
+package ru.milko.student_vertx.exceptions;
+
+public class QueryCancelledException extends RuntimeException{
+    public QueryCancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.milko.student_vertx.metrics;
+
+import io.vertx.core.Future;
+import ru.milko.student_vertx.model.Course;
+import ru.milko.student_vertx.repository.CourseRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class InstrumentedCourseRepository extends RepositoryMetrics implements CourseRepository {
+    private final CourseRepository delegate;
+
+    public InstrumentedCourseRepository(CourseRepository delegate) {
+        super("CourseRepository");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Future<Course> save(Course course) {
+        return timed("save", () -> delegate.save(course));
+    }
+
+    @Override
+    public Future<List<Course>> findAll() {
+        return timed("findAll", delegate::findAll);
+    }
+
+    @Override
+    public Future<List<Course>> findAllByTeacherId(Long teacherId) {
+        return timed("findAllByTeacherId", () -> delegate.findAllByTeacherId(teacherId));
+    }
+
+    @Override
+    public Future<List<Course>> findAllByListOfTeacherIds(List<Long> teacherIds) {
+        return timed("findAllByListOfTeacherIds", () -> delegate.findAllByListOfTeacherIds(teacherIds));
+    }
+
+    @Override
+    public Future<Optional<Course>> findById(Long id) {
+        return timed("findById", () -> delegate.findById(id));
+    }
+
+    @Override
+    public Future<Course> update(Course course) {
+        return timed("update", () -> delegate.update(course));
+    }
+
+    @Override
+    public Future<Void> deleteById(Long id) {
+        return timed("deleteById", () -> delegate.deleteById(id));
+    }
+
+    @Override
+    public Future<List<Course>> findAllByStudentId(Long id) {
+        return timed("findAllByStudentId", () -> delegate.findAllByStudentId(id));
+    }
+
+    @Override
+    public Future<Map<Long, List<Course>>> findAllByListOfStudentIds(List<Long> studentIds) {
+        return timed("findAllByListOfStudentIds", () -> delegate.findAllByListOfStudentIds(studentIds));
+    }
+
+    @Override
+    public Future<Boolean> existsById(Long id) {
+        return timed("existsById", () -> delegate.existsById(id));
+    }
+
+    @Override
+    public Future<Void> setTeacherToCourse(Long courseId, Long teacherId) {
+        return timed("setTeacherToCourse", () -> delegate.setTeacherToCourse(courseId, teacherId));
+    }
+}
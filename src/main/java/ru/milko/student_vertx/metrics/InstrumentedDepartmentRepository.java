@@ -0,0 +1,62 @@
+package ru.milko.student_vertx.metrics;
+
+import io.vertx.core.Future;
+import ru.milko.student_vertx.model.Department;
+import ru.milko.student_vertx.repository.DepartmentRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public class InstrumentedDepartmentRepository extends RepositoryMetrics implements DepartmentRepository {
+    private final DepartmentRepository delegate;
+
+    public InstrumentedDepartmentRepository(DepartmentRepository delegate) {
+        super("DepartmentRepository");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Future<Department> save(Department department) {
+        return timed("save", () -> delegate.save(department));
+    }
+
+    @Override
+    public Future<List<Department>> findAll() {
+        return timed("findAll", delegate::findAll);
+    }
+
+    @Override
+    public Future<List<Department>> findAllByHeadIds(List<Long> teacherIds) {
+        return timed("findAllByHeadIds", () -> delegate.findAllByHeadIds(teacherIds));
+    }
+
+    @Override
+    public Future<Optional<Department>> findById(Long id) {
+        return timed("findById", () -> delegate.findById(id));
+    }
+
+    @Override
+    public Future<Optional<Department>> findByHeadOfDepartmentId(Long headOfDepartmentId) {
+        return timed("findByHeadOfDepartmentId", () -> delegate.findByHeadOfDepartmentId(headOfDepartmentId));
+    }
+
+    @Override
+    public Future<Department> update(Department department) {
+        return timed("update", () -> delegate.update(department));
+    }
+
+    @Override
+    public Future<Void> deleteById(Long id) {
+        return timed("deleteById", () -> delegate.deleteById(id));
+    }
+
+    @Override
+    public Future<Boolean> existsById(Long id) {
+        return timed("existsById", () -> delegate.existsById(id));
+    }
+
+    @Override
+    public Future<Void> setTeacherToDepartment(Long departmentId, Long teacherId) {
+        return timed("setTeacherToDepartment", () -> delegate.setTeacherToDepartment(departmentId, teacherId));
+    }
+}
@@ -0,0 +1,69 @@
+package ru.milko.student_vertx.metrics;
+
+import io.vertx.core.Future;
+import ru.milko.student_vertx.model.Course;
+import ru.milko.student_vertx.model.Student;
+import ru.milko.student_vertx.repository.StudentRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class InstrumentedStudentRepository extends RepositoryMetrics implements StudentRepository {
+    private final StudentRepository delegate;
+
+    public InstrumentedStudentRepository(StudentRepository delegate) {
+        super("StudentRepository");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Future<Student> save(Student student) {
+        return timed("save", () -> delegate.save(student));
+    }
+
+    @Override
+    public Future<List<Student>> findAll() {
+        return timed("findAll", delegate::findAll);
+    }
+
+    @Override
+    public Future<List<Student>> findAllByCourseId(Long courseId) {
+        return timed("findAllByCourseId", () -> delegate.findAllByCourseId(courseId));
+    }
+
+    @Override
+    public Future<Map<Long, List<Student>>> findAllStudentsByCourseIds(List<Long> courseIds) {
+        return timed("findAllStudentsByCourseIds", () -> delegate.findAllStudentsByCourseIds(courseIds));
+    }
+
+    @Override
+    public Future<Optional<Student>> findById(Long id) {
+        return timed("findById", () -> delegate.findById(id));
+    }
+
+    @Override
+    public Future<Student> update(Student student) {
+        return timed("update", () -> delegate.update(student));
+    }
+
+    @Override
+    public Future<Void> deleteById(Long id) {
+        return timed("deleteById", () -> delegate.deleteById(id));
+    }
+
+    @Override
+    public Future<List<Course>> findAllCoursesByStudentId(Long id) {
+        return timed("findAllCoursesByStudentId", () -> delegate.findAllCoursesByStudentId(id));
+    }
+
+    @Override
+    public Future<Void> addCourseToStudent(Long studentId, Long courseId) {
+        return timed("addCourseToStudent", () -> delegate.addCourseToStudent(studentId, courseId));
+    }
+
+    @Override
+    public Future<Boolean> existsById(Long id) {
+        return timed("existsById", () -> delegate.existsById(id));
+    }
+}
@@ -0,0 +1,52 @@
+package ru.milko.student_vertx.metrics;
+
+import io.vertx.core.Future;
+import ru.milko.student_vertx.model.Teacher;
+import ru.milko.student_vertx.repository.TeacherRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public class InstrumentedTeacherRepository extends RepositoryMetrics implements TeacherRepository {
+    private final TeacherRepository delegate;
+
+    public InstrumentedTeacherRepository(TeacherRepository delegate) {
+        super("TeacherRepository");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Future<Teacher> save(Teacher teacher) {
+        return timed("save", () -> delegate.save(teacher));
+    }
+
+    @Override
+    public Future<List<Teacher>> findAll() {
+        return timed("findAll", delegate::findAll);
+    }
+
+    @Override
+    public Future<Optional<Teacher>> findById(Long id) {
+        return timed("findById", () -> delegate.findById(id));
+    }
+
+    @Override
+    public Future<Teacher> update(Teacher teacher) {
+        return timed("update", () -> delegate.update(teacher));
+    }
+
+    @Override
+    public Future<Void> deleteById(Long id) {
+        return timed("deleteById", () -> delegate.deleteById(id));
+    }
+
+    @Override
+    public Future<Boolean> existsById(Long id) {
+        return timed("existsById", () -> delegate.existsById(id));
+    }
+
+    @Override
+    public Future<List<Teacher>> findAllByIds(List<Long> ids) {
+        return timed("findAllByIds", () -> delegate.findAllByIds(ids));
+    }
+}
@@ -0,0 +1,230 @@
+package ru.milko.student_vertx.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.cache.CachedEntity;
+import ru.milko.student_vertx.cache.EntityCache;
+import ru.milko.student_vertx.cache.EntityCaches;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.context.CancelReason;
+import ru.milko.student_vertx.context.CancellationStats;
+import ru.milko.student_vertx.database.DatabaseNode;
+import ru.milko.student_vertx.utils.AdaptiveLimiter;
+import ru.milko.student_vertx.utils.EventLoopMonitor;
+import ru.milko.student_vertx.utils.ResponseCompression;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Prometheus registry of this process; timers publish {@code metrics.percentiles}, or buckets when it is empty.
+ */
+@Slf4j
+public final class Metrics {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static volatile PrometheusMeterRegistry registry;
+    private static double[] percentiles;
+    private static Timer jsonEncode;
+    private static final Set<String> boundLimiters = ConcurrentHashMap.newKeySet();
+    private static final Set<String> boundNodes = ConcurrentHashMap.newKeySet();
+
+    private Metrics() {
+    }
+
+    public static synchronized void configure(Config config) {
+        if (registry != null || !Boolean.parseBoolean(config.get("metrics.enabled", "false"))) {
+            return;
+        }
+        String quantiles = config.get("metrics.percentiles", "0.5,0.95,0.99");
+        percentiles = quantiles.isBlank()
+                ? new double[0]
+                : Arrays.stream(quantiles.split(",")).mapToDouble(q -> Double.parseDouble(q.trim())).toArray();
+        for (double percentile : percentiles) {
+            if (percentile <= 0 || percentile >= 1) {
+                throw new IllegalStateException("Metrics percentiles must be between 0 and 1.");
+            }
+        }
+
+        PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        new JvmMemoryMetrics().bindTo(prometheus);
+        new JvmGcMetrics().bindTo(prometheus);
+        new JvmThreadMetrics().bindTo(prometheus);
+        new ProcessorMetrics().bindTo(prometheus);
+        jsonEncode = timer("json.encode")
+                .description("Time to encode a response body to JSON")
+                .register(prometheus);
+        bindStats(prometheus);
+        registry = prometheus;
+        log.info("*** metrics enabled, {}", percentiles.length > 0 ? "percentiles " + quantiles : "histogram buckets");
+    }
+
+    public static boolean isEnabled() {
+        return registry != null;
+    }
+
+    public static MeterRegistry registry() {
+        return registry;
+    }
+
+    public static Timer.Builder timer(String name) {
+        return Timer.builder(name)
+                .publishPercentiles(percentiles)
+                .publishPercentileHistogram(percentiles.length == 0)
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30));
+    }
+
+    public static DistributionSummary.Builder summary(String name) {
+        return DistributionSummary.builder(name)
+                .publishPercentiles(percentiles)
+                .publishPercentileHistogram(percentiles.length == 0)
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(100_000.0);
+    }
+
+    public static void recordJsonEncode(long nanos) {
+        Timer timer = jsonEncode;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public static void bind(EntityCaches caches) {
+        if (registry == null) {
+            return;
+        }
+        for (CachedEntity entity : CachedEntity.values()) {
+            EntityCache<Object> cache = caches.cache(entity);
+            String name = entity.name().toLowerCase();
+            FunctionCounter.builder("cache.hits", cache, EntityCache::hits).tag("cache", name).register(registry);
+            FunctionCounter.builder("cache.misses", cache, EntityCache::misses).tag("cache", name).register(registry);
+            FunctionCounter.builder("cache.evictions", cache, EntityCache::evictions).tag("cache", name).register(registry);
+            Gauge.builder("cache.size", cache, EntityCache::size).tag("cache", name).register(registry);
+            Gauge.builder("cache.hit.ratio", cache, Metrics::hitRatio).tag("cache", name).register(registry);
+        }
+    }
+
+    /**
+     * The rate of {@code eventloop.busy} is the utilization of the loop.
+     */
+    public static void bind(EventLoopMonitor monitor) {
+        if (registry == null) {
+            return;
+        }
+        TimeGauge.builder("eventloop.lag", monitor, TimeUnit.MILLISECONDS, EventLoopMonitor::maxLagMillis)
+                .description("Largest delay of a task on any event loop")
+                .register(registry);
+        MeterRegistry target = registry;
+        monitor.started().onSuccess(v -> {
+            for (int i = 0; i < monitor.loops(); i++) {
+                int loop = i;
+                FunctionCounter.builder("eventloop.busy", monitor, m -> m.busyNanos(loop) / 1e9)
+                        .description("CPU time used by the event loop thread")
+                        .baseUnit("seconds")
+                        .tag("loop", String.valueOf(loop))
+                        .register(target);
+            }
+        });
+    }
+
+    public static String scrape() {
+        bindNewLimitersAndNodes(registry);
+        return registry.scrape();
+    }
+
+    private static void bindStats(MeterRegistry registry) {
+        FunctionCounter.builder("http.compression.compressed", "compressed", n -> ResponseCompression.compressed())
+                .register(registry);
+        FunctionCounter.builder("http.compression.bypassed", "bypassed", n -> ResponseCompression.bypassed())
+                .register(registry);
+        FunctionCounter.builder("http.compression.store.hits", "store", n -> ResponseCompression.storeHits())
+                .register(registry);
+        for (CancelReason reason : CancelReason.values()) {
+            String tag = reason.name().toLowerCase();
+            FunctionCounter.builder("requests.cancelled", reason, CancellationStats::requests)
+                    .tag("reason", tag).register(registry);
+            FunctionCounter.builder("statements.cancelled", reason, CancellationStats::cancelledStatements)
+                    .tag("reason", tag).register(registry);
+            FunctionCounter.builder("statements.skipped", reason, CancellationStats::skippedStatements)
+                    .tag("reason", tag).register(registry);
+        }
+        FunctionCounter.builder("responses.skipped", "skipped", n -> CancellationStats.skippedResponses())
+                .register(registry);
+    }
+
+    private static void bindNewLimitersAndNodes(MeterRegistry registry) {
+        for (AdaptiveLimiter limiter : AdaptiveLimiter.instances()) {
+            String name = limiter.name();
+            if (boundLimiters.add(name)) {
+                Gauge.builder("limiter.limit", name, limiterSum(AdaptiveLimiter::limit)).tag("limiter", name).register(registry);
+                Gauge.builder("limiter.in.flight", name, limiterSum(AdaptiveLimiter::inFlight)).tag("limiter", name).register(registry);
+                Gauge.builder("limiter.queue", name, limiterSum(AdaptiveLimiter::queueSize)).tag("limiter", name).register(registry);
+                FunctionCounter.builder("limiter.rejected", name, limiterSum(AdaptiveLimiter::rejected)).tag("limiter", name).register(registry);
+            }
+        }
+        for (DatabaseNode node : DatabaseNode.instances()) {
+            String name = node.name();
+            if (boundNodes.add(name)) {
+                Gauge.builder("db.pool.connections", name, nodeSum(Metrics::active)).tag("node", name).tag("state", "active").register(registry);
+                Gauge.builder("db.pool.connections", name, nodeSum(Metrics::idle)).tag("node", name).tag("state", "idle").register(registry);
+                Gauge.builder("db.pool.waiting", name, nodeSum(n -> n.limiter().queueSize())).tag("node", name).register(registry);
+            }
+        }
+    }
+
+    /**
+     * The pool does not report borrowed connections, but every statement holds a permit of the node's limiter.
+     */
+    private static int active(DatabaseNode node) {
+        return Math.min(node.limiter().inFlight(), node.pool().size());
+    }
+
+    private static int idle(DatabaseNode node) {
+        return Math.max(0, node.pool().size() - active(node));
+    }
+
+    private static double hitRatio(EntityCache<?> cache) {
+        long lookups = cache.hits() + cache.misses();
+        return lookups == 0 ? Double.NaN : (double) cache.hits() / lookups;
+    }
+
+    private static ToDoubleFunction<String> limiterSum(ToDoubleFunction<AdaptiveLimiter> value) {
+        return name -> {
+            double sum = 0;
+            for (AdaptiveLimiter limiter : AdaptiveLimiter.instances()) {
+                if (limiter.name().equals(name)) {
+                    sum += value.applyAsDouble(limiter);
+                }
+            }
+            return sum;
+        };
+    }
+
+    private static ToDoubleFunction<String> nodeSum(ToDoubleFunction<DatabaseNode> value) {
+        return name -> {
+            double sum = 0;
+            for (DatabaseNode node : DatabaseNode.instances()) {
+                if (node.name().equals(name)) {
+                    sum += value.applyAsDouble(node);
+                }
+            }
+            return sum;
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package ru.milko.student_vertx.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.Future;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Latency and row count of every repository method.
+ */
+public abstract class RepositoryMetrics {
+    private final String repository;
+    private final Map<String, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    protected RepositoryMetrics(String repository) {
+        this.repository = repository;
+    }
+
+    protected <T> Future<T> timed(String method, Supplier<Future<T>> call) {
+        MethodMeters methodMeters = meters.computeIfAbsent(method, this::register);
+        long start = System.nanoTime();
+        return call.get().onComplete(ar -> {
+            methodMeters.latency().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (ar.succeeded()) {
+                methodMeters.rows().record(rows(ar.result()));
+            }
+        });
+    }
+
+    public static int rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            int rows = 0;
+            for (Object value : map.values()) {
+                rows += value instanceof Collection<?> collection ? collection.size() : 1;
+            }
+            return rows;
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return 1;
+    }
+
+    private MethodMeters register(String method) {
+        return new MethodMeters(
+                Metrics.timer("repository.calls")
+                        .description("Latency of repository methods")
+                        .tag("repository", repository)
+                        .tag("method", method)
+                        .register(Metrics.registry()),
+                Metrics.summary("repository.rows")
+                        .description("Rows returned by repository methods")
+                        .tag("repository", repository)
+                        .tag("method", method)
+                        .register(Metrics.registry()));
+    }
+
+    private record MethodMeters(Timer latency, DistributionSummary rows) {
+    }
+}
@@ -0,0 +1,112 @@
+package ru.milko.student_vertx.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Route;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP latency by method, route template and status class. Unmatched paths share one label.
+ */
+public final class RouteMetrics {
+    public static final String UNMATCHED = "unmatched";
+    private static final String[] STATUS_CLASSES = {"1xx", "1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    // replaced, never mutated: read from every event loop without locking
+    private static volatile Map<Route, String> templates = Map.of();
+    private static volatile List<Template> patterns = List.of();
+    private static final Map<String, Map<String, Timer[]>> timers = new ConcurrentHashMap<>();
+
+    private RouteMetrics() {
+    }
+
+    public static synchronized void register(Router router) {
+        Map<Route, String> newTemplates = new IdentityHashMap<>(templates);
+        List<Template> newPatterns = new ArrayList<>(patterns);
+        for (Route route : router.getRoutes()) {
+            Set<HttpMethod> methods = route.methods();
+            if (route.getPath() == null || methods == null || methods.isEmpty()) {
+                continue;
+            }
+            newTemplates.put(route, route.getPath());
+            newPatterns.add(new Template(route.getPath(), Set.copyOf(methods), compile(route.getPath())));
+        }
+        templates = Collections.unmodifiableMap(newTemplates);
+        patterns = List.copyOf(newPatterns);
+    }
+
+    public static void record(RoutingContext context, long startNanos) {
+        if (!Metrics.isEnabled()) {
+            return;
+        }
+        String template = templates.get(context.currentRoute());
+        if (template == null) {
+            template = resolve(context.request().method(), context.request().path());
+        }
+        HttpMethod method = context.request().method();
+        int status = context.response().getStatusCode();
+        int statusClass = status >= 100 && status < 600 ? status / 100 : 5;
+
+        Map<String, Timer[]> byMethod = timers.get(template);
+        if (byMethod == null) {
+            byMethod = timers.computeIfAbsent(template, t -> new ConcurrentHashMap<>());
+        }
+        Timer[] byStatus = byMethod.get(method.name());
+        if (byStatus == null) {
+            byStatus = byMethod.computeIfAbsent(method.name(), m -> new Timer[STATUS_CLASSES.length]);
+        }
+        Timer timer = byStatus[statusClass];
+        if (timer == null) {
+            // registering the same meter twice returns the first one, so a race here is harmless
+            timer = Metrics.timer("http.server.requests")
+                    .description("Latency of HTTP requests")
+                    .tag("method", method.name())
+                    .tag("route", template)
+                    .tag("status", STATUS_CLASSES[statusClass])
+                    .register(Metrics.registry());
+            byStatus[statusClass] = timer;
+        }
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static String resolve(HttpMethod method, String path) {
+        if (path != null) {
+            for (Template template : patterns) {
+                if (template.methods().contains(method) && template.pattern().matcher(path).matches()) {
+                    return template.path();
+                }
+            }
+        }
+        return UNMATCHED;
+    }
+
+    private static Pattern compile(String template) {
+        StringJoiner regex = new StringJoiner("/");
+        for (String segment : template.split("/", -1)) {
+            if (segment.startsWith(":")) {
+                regex.add("[^/]+");
+            } else if (segment.equals("*")) {
+                regex.add(".*");
+            } else {
+                regex.add(Pattern.quote(segment));
+            }
+        }
+        // vert.x also matches a trailing slash
+        return Pattern.compile(regex + "/?");
+    }
+
+    private record Template(String path, Set<HttpMethod> methods, Pattern pattern) {
+    }
+}
@@ -2,10 +2,12 @@ package ru.milko.student_vertx.repository.impl;
 
 import io.vertx.core.Future;
 import io.vertx.pgclient.PgException;
-import io.vertx.sqlclient.Pool;
 import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
 import io.vertx.sqlclient.Tuple;
 import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.database.Lane;
+import ru.milko.student_vertx.database.ShardRouter;
 import ru.milko.student_vertx.exceptions.DuplicateFieldException;
 import ru.milko.student_vertx.exceptions.EntityNotFoundException;
 import ru.milko.student_vertx.model.Course;
@@ -19,18 +21,48 @@ import java.util.Optional;
 
 @Slf4j
 public class CourseRepositoryImpl implements CourseRepository {
-    private final Pool client;
-
-    public CourseRepositoryImpl(Pool client) {
-        this.client = client;
+    private static final String SAVE = "INSERT INTO courses (title) VALUES ($1) RETURNING id";
+    private static final String SAVE_COPY = "INSERT INTO courses (title, id) VALUES ($1, $2)";
+    private static final String FIND_ALL_BY_TEACHER_ID = "SELECT id, title FROM courses " +
+            "WHERE teacher_id = $1";
+    private static final String FIND_ALL_BY_LIST_OF_TEACHER_IDS = "SELECT id, title, teacher_id FROM courses WHERE teacher_id = ANY($1)";
+    private static final String FIND_BY_ID = "SELECT id, title, teacher_id FROM courses WHERE id = $1";
+    private static final String DELETE_BY_ID = "DELETE FROM courses WHERE id = $1";
+    private static final String FIND_ALL_BY_STUDENT_ID = "SELECT c.id, c.title, c.teacher_id FROM courses c " +
+            "INNER JOIN course_student cs " +
+            "ON c.id = cs.course_id " +
+            "WHERE cs.student_id = $1";
+    private static final String FIND_ALL_BY_LIST_OF_STUDENT_IDS = "SELECT cs.student_id AS student_id, c.id, c.title, c.teacher_id " +
+            "FROM courses c " +
+            "INNER JOIN course_student cs ON c.id = cs.course_id " +
+            "WHERE cs.student_id = ANY($1)";
+    private static final String EXISTS_BY_ID = "SELECT EXISTS (SELECT 1 FROM courses WHERE id = $1)";
+    private static final String SET_TEACHER_TO_COURSE = "UPDATE courses SET teacher_id = $1 WHERE id = $2";
+
+    // prepared on every pooled connection during the warmup
+    public static final List<String> STATEMENTS = List.of(
+            SAVE,
+            SAVE_COPY,
+            FIND_ALL_BY_TEACHER_ID,
+            FIND_ALL_BY_LIST_OF_TEACHER_IDS,
+            FIND_BY_ID,
+            DELETE_BY_ID,
+            FIND_ALL_BY_STUDENT_ID,
+            FIND_ALL_BY_LIST_OF_STUDENT_IDS,
+            EXISTS_BY_ID,
+            SET_TEACHER_TO_COURSE);
+
+    private final ShardRouter shards;
+
+    public CourseRepositoryImpl(ShardRouter shards) {
+        this.shards = shards;
     }
 
     @Override
     public Future<Course> save(Course course) {
         log.info("*** in save, course = {}", course);
-        String query = "INSERT INTO courses (title) VALUES ($1) RETURNING id";
 
-        return client.preparedQuery(query).execute(Tuple.of(course.getTitle())).map(rows -> {
+        return shards.insertReference(SAVE, SAVE_COPY, DELETE_BY_ID, Tuple.of(course.getTitle())).map(rows -> {
             Row row = rows.iterator().next();
             course.setId(row.getLong("id"));
             return course;
@@ -42,7 +74,7 @@ public class CourseRepositoryImpl implements CourseRepository {
         log.info("*** in findAll");
         String query = "SELECT id, title, teacher_id FROM courses";
 
-        return client.query(query).execute().map(rows -> {
+        return shards.home().read(Lane.BULK, query).map(rows -> {
             List<Course> courses = new ArrayList<>();
             for (Row row : rows) {
                 courses.add(Course.builder()
@@ -58,11 +90,8 @@ public class CourseRepositoryImpl implements CourseRepository {
     @Override
     public Future<List<Course>> findAllByTeacherId(Long teacherId) {
         log.info("*** in findAllCoursesByTeacherId, teacherId = {}", teacherId);
-        String query = "SELECT id, title FROM courses " +
-                "WHERE teacher_id = $1";
 
-        return client.preparedQuery(query)
-                .execute(Tuple.of(teacherId))
+        return shards.home().read(FIND_ALL_BY_TEACHER_ID, Tuple.of(teacherId))
                 .map(rows -> {
                     List<Course> courses = new ArrayList<>();
                     for (Row row : rows) {
@@ -78,11 +107,9 @@ public class CourseRepositoryImpl implements CourseRepository {
     @Override
     public Future<List<Course>> findAllByListOfTeacherIds(List<Long> teacherIds) {
         log.info("*** in findAllByListOfTeacherIds, teacherIds = {}", teacherIds);
-        String query = "SELECT id, title, teacher_id FROM courses WHERE teacher_id = ANY($1)";
 
         Long[] teacherIdsArray = teacherIds.toArray(new Long[0]);
-        return client.preparedQuery(query)
-                .execute(Tuple.of((Object) teacherIdsArray))
+        return shards.home().read(FIND_ALL_BY_LIST_OF_TEACHER_IDS, Tuple.of((Object) teacherIdsArray))
                 .map(rows -> {
                     List<Course> courses = new ArrayList<>();
                     for (Row row : rows) {
@@ -99,9 +126,8 @@ public class CourseRepositoryImpl implements CourseRepository {
     @Override
     public Future<Optional<Course>> findById(Long id) {
         log.info("*** in findById, id = {}", id);
-        String query = "SELECT id, title, teacher_id FROM courses WHERE id = $1";
 
-        return client.preparedQuery(query).execute(Tuple.of(id))
+        return shards.home().read(FIND_BY_ID, Tuple.of(id))
                 .map(rows -> {
                     if (rows.rowCount() == 0) {
                         return Optional.empty();
@@ -134,8 +160,7 @@ public class CourseRepositoryImpl implements CourseRepository {
 
         String query = queryBuilder.toString();
 
-        return client.preparedQuery(query)
-                .execute(params)
+        return shards.writeReference(query, params)
                 .compose(result -> {
                     if (result.rowCount() > 0) {
                         return Future.succeededFuture(course);
@@ -148,19 +173,12 @@ public class CourseRepositoryImpl implements CourseRepository {
     @Override
     public Future<Void> deleteById(Long id) {
         log.info("*** in deleteById, id = {}", id);
-        String query = "DELETE FROM courses WHERE id = $1";
-        return client.preparedQuery(query).execute(Tuple.of(id)).mapEmpty();
+        return shards.writeReference(DELETE_BY_ID, Tuple.of(id)).mapEmpty();
     }
 
     @Override
     public Future<List<Course>> findAllByStudentId(Long id) {
-        String query = "SELECT * FROM courses c " +
-                "INNER JOIN course_student cs " +
-                "ON c.id = cs.course_id " +
-                "WHERE cs.student_id = $1";
-
-        return client.preparedQuery(query)
-                .execute(Tuple.of(id))
+        return shards.shardOf(id).read(FIND_ALL_BY_STUDENT_ID, Tuple.of(id))
                 .map(rows -> {
                     List<Course> courses = new ArrayList<>();
                     for (Row row : rows) {
@@ -176,28 +194,26 @@ public class CourseRepositoryImpl implements CourseRepository {
 
     @Override
     public Future<Map<Long, List<Course>>> findAllByListOfStudentIds(List<Long> studentIds) {
-        String query = "SELECT cs.student_id AS student_id, c.id, c.title, c.teacher_id " +
-                "FROM courses c " +
-                "INNER JOIN course_student cs ON c.id = cs.course_id " +
-                "WHERE cs.student_id = ANY($1)";
-
-        Long[] studentIdsArray = studentIds.toArray(new Long[0]);
+        List<Future<RowSet<Row>>> results = new ArrayList<>();
+        shards.groupByShard(studentIds).forEach((shardIndex, ids) ->
+                results.add(shards.shards().get(shardIndex).read(FIND_ALL_BY_LIST_OF_STUDENT_IDS, Tuple.of(ids.toArray(new Long[0])))));
 
-        return client.preparedQuery(query)
-                .execute(Tuple.of(studentIdsArray))
-                .map(rows -> {
+        return Future.all(results)
+                .map(all -> {
                     Map<Long, List<Course>> coursesByStudentId = new HashMap<>();
-                    for (Row row : rows) {
-                        Long sId = row.getLong("student_id");
-                        Course course = Course.builder()
-                                .id(row.getLong("id"))
-                                .title(row.getString("title"))
-                                .teacherId(row.getLong("teacher_id"))
-                                .build();
-
-                        coursesByStudentId
-                                .computeIfAbsent(sId, k -> new ArrayList<>())
-                                .add(course);
+                    for (Future<RowSet<Row>> result : results) {
+                        for (Row row : result.result()) {
+                            Long sId = row.getLong("student_id");
+                            Course course = Course.builder()
+                                    .id(row.getLong("id"))
+                                    .title(row.getString("title"))
+                                    .teacherId(row.getLong("teacher_id"))
+                                    .build();
+
+                            coursesByStudentId
+                                    .computeIfAbsent(sId, k -> new ArrayList<>())
+                                    .add(course);
+                        }
                     }
                     return coursesByStudentId;
                 });
@@ -208,10 +224,7 @@ public class CourseRepositoryImpl implements CourseRepository {
     public Future<Boolean> existsById(Long id) {
         log.info("*** in existsById, id = {}", id);
 
-        String query = "SELECT EXISTS (SELECT 1 FROM courses WHERE id = $1)";
-        return client
-                .preparedQuery(query)
-                .execute(Tuple.of(id))
+        return shards.home().read(EXISTS_BY_ID, Tuple.of(id))
                 .map(rowSet -> {
                     Row row = rowSet.iterator().next();
                     return row.getBoolean(0);
@@ -221,10 +234,8 @@ public class CourseRepositoryImpl implements CourseRepository {
     @Override
     public Future<Void> setTeacherToCourse(Long courseId, Long teacherId) {
         log.info("*** in setTeacherToCourse, courseId = {}, teacherId = {}", courseId, teacherId);
-        String query = "UPDATE courses SET teacher_id = $1 WHERE id = $2";
 
-        return client.preparedQuery(query)
-                .execute(Tuple.of(teacherId, courseId))
+        return shards.writeReferenceInTransaction(SET_TEACHER_TO_COURSE, Tuple.of(teacherId, courseId))
                 .map(rows -> null);
     }
 
@@ -1,10 +1,11 @@
 package ru.milko.student_vertx.repository.impl;
 
 import io.vertx.core.Future;
-import io.vertx.sqlclient.Pool;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.Tuple;
 import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.database.Lane;
+import ru.milko.student_vertx.database.ShardRouter;
 import ru.milko.student_vertx.exceptions.EntityNotFoundException;
 import ru.milko.student_vertx.model.Course;
 import ru.milko.student_vertx.model.Department;
@@ -16,18 +17,37 @@ import java.util.Optional;
 
 @Slf4j
 public class DepartmentRepositoryImpl implements DepartmentRepository {
-    private final Pool client;
-
-    public DepartmentRepositoryImpl(Pool client) {
-        this.client = client;
+    private static final String SAVE = "INSERT INTO departments (name) VALUES ($1) RETURNING id";
+    private static final String SAVE_COPY = "INSERT INTO departments (name, id) VALUES ($1, $2)";
+    private static final String FIND_ALL_BY_HEAD_IDS = "SELECT id, name, head_of_department_id FROM departments WHERE head_of_department_id = ANY($1)";
+    private static final String FIND_BY_ID = "SELECT id, name, head_of_department_id FROM departments WHERE id = $1";
+    private static final String FIND_BY_HEAD_OF_DEPARTMENT_ID = "SELECT id, name FROM departments WHERE head_of_department_id = $1";
+    private static final String DELETE_BY_ID = "DELETE FROM departments WHERE id = $1";
+    private static final String EXISTS_BY_ID = "SELECT EXISTS (SELECT 1 FROM departments WHERE id = $1)";
+    private static final String SET_TEACHER_TO_DEPARTMENT = "UPDATE departments SET head_of_department_id = $1 WHERE id = $2";
+
+    // prepared on every pooled connection during the warmup
+    public static final List<String> STATEMENTS = List.of(
+            SAVE,
+            SAVE_COPY,
+            FIND_ALL_BY_HEAD_IDS,
+            FIND_BY_ID,
+            FIND_BY_HEAD_OF_DEPARTMENT_ID,
+            DELETE_BY_ID,
+            EXISTS_BY_ID,
+            SET_TEACHER_TO_DEPARTMENT);
+
+    private final ShardRouter shards;
+
+    public DepartmentRepositoryImpl(ShardRouter shards) {
+        this.shards = shards;
     }
 
     @Override
     public Future<Department> save(Department department) {
         log.info("*** in save, department = {}", department);
-        String query = "INSERT INTO departments (name) VALUES ($1) RETURNING id";
 
-        return client.preparedQuery(query).execute(Tuple.of(department.getName())).map(rows -> {
+        return shards.insertReference(SAVE, SAVE_COPY, DELETE_BY_ID, Tuple.of(department.getName())).map(rows -> {
             Row row = rows.iterator().next();
             department.setId(row.getLong("id"));
             return department;
@@ -39,7 +59,7 @@ public class DepartmentRepositoryImpl implements DepartmentRepository {
         log.info("*** in findAll");
         String query = "SELECT id, name, head_of_department_id FROM departments";
 
-        return client.query(query).execute().map(rows -> {
+        return shards.home().read(Lane.BULK, query).map(rows -> {
             List<Department> departments = new ArrayList<>();
             for (Row row : rows) {
                 departments.add(Department.builder()
@@ -55,11 +75,9 @@ public class DepartmentRepositoryImpl implements DepartmentRepository {
     @Override
     public Future<List<Department>> findAllByHeadIds(List<Long> teacherIds) {
         log.info("*** in findAllByHeadIds, teacherIds = {}", teacherIds);
-        String query = "SELECT id, name, head_of_department_id FROM departments WHERE head_of_department_id = ANY($1)";
 
         Long[] teacherIdsArray = teacherIds.toArray(new Long[0]);
-        return client.preparedQuery(query)
-                .execute(Tuple.of((Object) teacherIdsArray))
+        return shards.home().read(FIND_ALL_BY_HEAD_IDS, Tuple.of((Object) teacherIdsArray))
                 .map(rows -> {
                     List<Department> departments = new ArrayList<>();
                     for (Row row : rows) {
@@ -76,9 +94,8 @@ public class DepartmentRepositoryImpl implements DepartmentRepository {
     @Override
     public Future<Optional<Department>> findById(Long id) {
         log.info("*** in findById, id = {}", id);
-        String query = "SELECT id, name, head_of_department_id FROM departments WHERE id = $1";
 
-        return client.preparedQuery(query).execute(Tuple.of(id))
+        return shards.home().read(FIND_BY_ID, Tuple.of(id))
                 .map(rows -> {
                     if (rows.rowCount() == 0) {
                         return Optional.empty();
@@ -95,9 +112,8 @@ public class DepartmentRepositoryImpl implements DepartmentRepository {
     @Override
     public Future<Optional<Department>> findByHeadOfDepartmentId(Long headOfDepartmentId) {
         log.info("*** in findByHeadOfDepartmentId, headOfDepartmentId = {}", headOfDepartmentId);
-        String query = "SELECT id, name FROM departments WHERE head_of_department_id = $1";
 
-        return client.preparedQuery(query).execute(Tuple.of(headOfDepartmentId))
+        return shards.home().read(FIND_BY_HEAD_OF_DEPARTMENT_ID, Tuple.of(headOfDepartmentId))
                 .map(rows -> {
                     if (rows.rowCount() == 0) {
                         return Optional.empty();
@@ -129,8 +145,7 @@ public class DepartmentRepositoryImpl implements DepartmentRepository {
 
         String query = queryBuilder.toString();
 
-        return client.preparedQuery(query)
-                .execute(params)
+        return shards.writeReference(query, params)
                 .compose(result -> {
                     if (result.rowCount() > 0) {
                         return Future.succeededFuture(department);
@@ -143,18 +158,14 @@ public class DepartmentRepositoryImpl implements DepartmentRepository {
     @Override
     public Future<Void> deleteById(Long id) {
         log.info("*** in deleteById, id = {}", id);
-        String query = "DELETE FROM departments WHERE id = $1";
-        return client.preparedQuery(query).execute(Tuple.of(id)).mapEmpty();
+        return shards.writeReference(DELETE_BY_ID, Tuple.of(id)).mapEmpty();
     }
 
     @Override
     public Future<Boolean> existsById(Long id) {
         log.info("*** in existsById, id = {}", id);
 
-        String sql = "SELECT EXISTS (SELECT 1 FROM departments WHERE id = $1)";
-        return client
-                .preparedQuery(sql)
-                .execute(Tuple.of(id))
+        return shards.home().read(EXISTS_BY_ID, Tuple.of(id))
                 .map(rowSet -> {
                     Row row = rowSet.iterator().next();
                     return row.getBoolean(0);
@@ -164,10 +175,8 @@ public class DepartmentRepositoryImpl implements DepartmentRepository {
     @Override
     public Future<Void> setTeacherToDepartment(Long departmentId, Long teacherId) {
         log.info("*** in setTeacherToDepartment, departmentId = {}, teacherId = {}", departmentId, teacherId);
-        String query = "UPDATE departments SET head_of_department_id = $1 WHERE id = $2";
 
-        return client.preparedQuery(query)
-                .execute(Tuple.of(teacherId, departmentId))
+        return shards.writeReferenceInTransaction(SET_TEACHER_TO_DEPARTMENT, Tuple.of(teacherId, departmentId))
                 .map(rows -> null);
     }
 }
@@ -1,10 +1,14 @@
 package ru.milko.student_vertx.repository.impl;
 
 import io.vertx.core.Future;
-import io.vertx.sqlclient.Pool;
 import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
 import io.vertx.sqlclient.Tuple;
 import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.database.DatabaseClient;
+import ru.milko.student_vertx.database.Lane;
+import ru.milko.student_vertx.database.ShardRouter;
+import ru.milko.student_vertx.exceptions.DuplicateFieldException;
 import ru.milko.student_vertx.exceptions.EntityNotFoundException;
 import ru.milko.student_vertx.model.Course;
 import ru.milko.student_vertx.model.Student;
@@ -15,38 +19,82 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Slf4j
 public class StudentRepositoryImpl implements StudentRepository {
-    private final Pool client;
-
-    public StudentRepositoryImpl(Pool client) {
-        this.client = client;
+    private static final String SAVE = "INSERT INTO students (name, email) VALUES ($1, $2) RETURNING id";
+    private static final String FIND_ALL_BY_COURSE_ID = "SELECT s.id, s.name, s.email FROM students s " +
+            "INNER JOIN course_student cs " +
+            "ON s.id = cs.student_id " +
+            "WHERE cs.course_id = $1";
+    private static final String FIND_ALL_STUDENTS_BY_COURSE_IDS = "SELECT cs.course_id, s.id, s.name, s.email " +
+            "FROM students s " +
+            "INNER JOIN course_student cs ON s.id = cs.student_id " +
+            "WHERE cs.course_id = ANY($1)";
+    private static final String FIND_BY_ID = "SELECT id, name, email FROM students WHERE id = $1";
+    private static final String DELETE_BY_ID = "DELETE FROM students WHERE id = $1";
+    private static final String FIND_ALL_COURSES_BY_STUDENT_ID = "SELECT c.id, c.title, c.teacher_id FROM courses c " +
+            "INNER JOIN course_student cs ON c.id = cs.course_id " +
+            "WHERE cs.student_id = $1";
+    private static final String ADD_COURSE_TO_STUDENT = "INSERT INTO course_student (student_id, course_id) VALUES ($1, $2)";
+    private static final String EXISTS_BY_ID = "SELECT EXISTS (SELECT 1 FROM students WHERE id = $1)";
+    private static final String EXISTS_BY_NAME = "SELECT EXISTS (SELECT 1 FROM students WHERE name = $1)";
+    // a claim left behind by a crashed instance expires instead of blocking the name forever
+    private static final String CLAIM_NAME = "INSERT INTO student_name_claims (name) VALUES ($1) " +
+            "ON CONFLICT (name) DO UPDATE SET claimed_at = now() " +
+            "WHERE student_name_claims.claimed_at < now() - interval '30 seconds' " +
+            "RETURNING name";
+    private static final String RELEASE_NAME = "DELETE FROM student_name_claims WHERE name = $1";
+
+    // prepared on every pooled connection during the warmup
+    public static final List<String> STATEMENTS = List.of(
+            SAVE,
+            FIND_ALL_BY_COURSE_ID,
+            FIND_ALL_STUDENTS_BY_COURSE_IDS,
+            FIND_BY_ID,
+            DELETE_BY_ID,
+            FIND_ALL_COURSES_BY_STUDENT_ID,
+            ADD_COURSE_TO_STUDENT,
+            EXISTS_BY_ID,
+            EXISTS_BY_NAME,
+            CLAIM_NAME,
+            RELEASE_NAME);
+
+    private final ShardRouter shards;
+
+    public StudentRepositoryImpl(ShardRouter shards) {
+        this.shards = shards;
     }
 
     public Future<Student> save(Student student) {
         log.info("*** in save, student = {}", student);
-        String query = "INSERT INTO students (name, email) VALUES ($1, $2) RETURNING id";
 
-        return client.preparedQuery(query).execute(Tuple.of(student.getName(), student.getEmail())).map(rows -> {
-            Row row = rows.iterator().next();
-            student.setId(row.getLong("id"));
-            return student;
-        });
+        int shardIndex = shards.shardIndexForName(student.getName());
+
+        return withNameClaimed(student.getName(), shardIndex,
+                        () -> shards.shards().get(shardIndex).write(SAVE, Tuple.of(student.getName(), student.getEmail())))
+                .map(rows -> {
+                    Row row = rows.iterator().next();
+                    student.setId(row.getLong("id"));
+                    return student;
+                });
     }
 
     public Future<List<Student>> findAll() {
         log.info("*** in findAll");
         String query = "SELECT id, name, email FROM students";
 
-        return client.query(query).execute().map(rows -> {
+        return shards.scatter(shard -> shard.read(Lane.BULK, query)).map(results -> {
             List<Student> students = new ArrayList<>();
-            for (Row row : rows) {
-                students.add(Student.builder()
-                        .id(row.getLong("id"))
-                        .name(row.getString("name"))
-                        .email(row.getString("email"))
-                        .build());
+            for (RowSet<Row> rows : results) {
+                for (Row row : rows) {
+                    students.add(Student.builder()
+                            .id(row.getLong("id"))
+                            .name(row.getString("name"))
+                            .email(row.getString("email"))
+                            .build());
+                }
             }
             return students;
         });
@@ -55,49 +103,42 @@ public class StudentRepositoryImpl implements StudentRepository {
     @Override
     public Future<List<Student>> findAllByCourseId(Long courseId) {
         log.info("*** in findAllByCourseId, courseId = {}", courseId);
-        String query = "SELECT * FROM students s " +
-                "INNER JOIN course_student cs " +
-                "ON s.id = cs.student_id " +
-                "WHERE cs.course_id = $1";
 
-        return client.preparedQuery(query)
-                .execute(Tuple.of(courseId))
-                .map(rows -> {
+        return shards.scatter(shard -> shard.read(FIND_ALL_BY_COURSE_ID, Tuple.of(courseId)))
+                .map(results -> {
                     List<Student> students = new ArrayList<>();
-                    for (Row row : rows) {
-                        students.add(Student.builder()
-                                .id(row.getLong("id"))
-                                .name(row.getString("name"))
-                                .email(row.getString("email"))
-                                .build());
+                    for (RowSet<Row> rows : results) {
+                        for (Row row : rows) {
+                            students.add(Student.builder()
+                                    .id(row.getLong("id"))
+                                    .name(row.getString("name"))
+                                    .email(row.getString("email"))
+                                    .build());
+                        }
                     }
                     return students;
                 });
     }
 
     public Future<Map<Long, List<Student>>> findAllStudentsByCourseIds(List<Long> courseIds) {
-        String query = "SELECT cs.course_id, s.id, s.name, s.email " +
-                "FROM students s " +
-                "INNER JOIN course_student cs ON s.id = cs.student_id " +
-                "WHERE cs.course_id = ANY($1)";
-
         Long[] courseIdsArray = courseIds.toArray(new Long[0]);
 
-        return client.preparedQuery(query)
-                .execute(Tuple.of((Object) courseIdsArray))
-                .map(rows -> {
+        return shards.scatter(shard -> shard.read(FIND_ALL_STUDENTS_BY_COURSE_IDS, Tuple.of((Object) courseIdsArray)))
+                .map(results -> {
                     Map<Long, List<Student>> studentsByCourseId = new HashMap<>();
-                    for (Row row : rows) {
-                        Long courseId = row.getLong("course_id");
-                        Student student = Student.builder()
-                                .id(row.getLong("id"))
-                                .name(row.getString("name"))
-                                .email(row.getString("email"))
-                                .build();
-
-                        studentsByCourseId
-                                .computeIfAbsent(courseId, k -> new ArrayList<>())
-                                .add(student);
+                    for (RowSet<Row> rows : results) {
+                        for (Row row : rows) {
+                            Long courseId = row.getLong("course_id");
+                            Student student = Student.builder()
+                                    .id(row.getLong("id"))
+                                    .name(row.getString("name"))
+                                    .email(row.getString("email"))
+                                    .build();
+
+                            studentsByCourseId
+                                    .computeIfAbsent(courseId, k -> new ArrayList<>())
+                                    .add(student);
+                        }
                     }
                     return studentsByCourseId;
                 });
@@ -106,9 +147,8 @@ public class StudentRepositoryImpl implements StudentRepository {
 
     public Future<Optional<Student>> findById(Long id) {
         log.info("*** in findById, id = {}", id);
-        String query = "SELECT id, name, email FROM students WHERE id = $1";
 
-        return client.preparedQuery(query).execute(Tuple.of(id))
+        return shards.shardOf(id).read(FIND_BY_ID, Tuple.of(id))
                 .map(rows -> {
                     if (rows.rowCount() == 0) {
                         return Optional.empty();
@@ -146,8 +186,12 @@ public class StudentRepositoryImpl implements StudentRepository {
 
         String query = queryBuilder.toString();
 
-        return client.preparedQuery(query)
-                .execute(params)
+        Future<RowSet<Row>> write = student.getName() == null
+                ? shards.shardOf(student.getId()).write(query, params)
+                : withNameClaimed(student.getName(), shards.shardIndexOf(student.getId()),
+                        () -> shards.shardOf(student.getId()).write(query, params));
+
+        return write
                 .compose(result -> {
                     if (result.rowCount() > 0) {
                         return Future.succeededFuture(student);
@@ -159,18 +203,14 @@ public class StudentRepositoryImpl implements StudentRepository {
 
     public Future<Void> deleteById(Long id) {
         log.info("*** in deleteById, id = {}", id);
-        String query = "DELETE FROM students WHERE id = $1";
-        return client.preparedQuery(query).execute(Tuple.of(id)).mapEmpty();
+        return shards.shardOf(id).write(DELETE_BY_ID, Tuple.of(id)).mapEmpty();
     }
 
     @Override
     public Future<List<Course>> findAllCoursesByStudentId(Long id) {
         log.info("*** in getAllCoursesByStudentId, StudentId = {}", id);
-        String query = "SELECT c.id, c.title, c.teacher_id FROM courses c " +
-                "INNER JOIN course_student cs ON c.id = cs.course_id " +
-                "WHERE cs.student_id = $1";
 
-        return client.preparedQuery(query).execute(Tuple.of(id)).map(rows -> {
+        return shards.shardOf(id).read(FIND_ALL_COURSES_BY_STUDENT_ID, Tuple.of(id)).map(rows -> {
             List<Course> courses = new ArrayList<>();
             for (Row row : rows) {
                 courses.add(Course.builder()
@@ -187,23 +227,54 @@ public class StudentRepositoryImpl implements StudentRepository {
     public Future<Void> addCourseToStudent(Long studentId, Long courseId) {
         log.info("*** in addCourseToStudent, studentId = {}, courseId = {}", studentId, courseId);
 
-        String query = "INSERT INTO course_student (student_id, course_id) VALUES ($1, $2)";
-        return client.preparedQuery(query)
-                .execute(Tuple.of(studentId, courseId))
+        return shards.shardOf(studentId).writeInTransaction(ADD_COURSE_TO_STUDENT, Tuple.of(studentId, courseId))
                 .map(rows -> null);
     }
 
     public Future<Boolean> existsById(Long id) {
         log.info("*** in existsById, id = {}", id);
 
-        String sql = "SELECT EXISTS (SELECT 1 FROM students WHERE id = $1)";
-        return client
-                .preparedQuery(sql)
-                .execute(Tuple.of(id))
+        return shards.shardOf(id).read(EXISTS_BY_ID, Tuple.of(id))
                 .map(rowSet -> {
                     Row row = rowSet.iterator().next();
                     return row.getBoolean(0);
                 });
     }
 
+    /**
+     * The unique index on {@code students.name} only covers one shard. Every insert or rename first claims the
+     * name on the shard it hashes to, so writers of one name take turns between the check and the write.
+     */
+    private Future<RowSet<Row>> withNameClaimed(String name, int ownShardIndex, Supplier<Future<RowSet<Row>>> write) {
+        if (shards.size() == 1) {
+            return write.get();
+        }
+        DatabaseClient claimShard = shards.shards().get(shards.shardIndexForName(name));
+        return claimShard.write(CLAIM_NAME, Tuple.of(name)).compose(claimed -> {
+            if (claimed.rowCount() == 0) {
+                return Future.failedFuture(new DuplicateFieldException("Student with name " + name + " is being saved by another request"));
+            }
+            return ensureNameIsFree(name, ownShardIndex)
+                    .compose(v -> write.get())
+                    .andThen(ar -> claimShard.write(RELEASE_NAME, Tuple.of(name))
+                            .onFailure(e -> log.warn("*** could not release the claim on student name {}, it expires: {}", name, e.getMessage())));
+        });
+    }
+
+    private Future<Void> ensureNameIsFree(String name, int ownShardIndex) {
+        List<Future<RowSet<Row>>> checks = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            if (i != ownShardIndex) {
+                checks.add(shards.shards().get(i).readOnPrimary(EXISTS_BY_NAME, Tuple.of(name)));
+            }
+        }
+        return Future.all(checks).compose(all -> {
+            for (Future<RowSet<Row>> check : checks) {
+                if (check.result().iterator().next().getBoolean(0)) {
+                    return Future.failedFuture(new DuplicateFieldException("Student with name " + name + " already exists"));
+                }
+            }
+            return Future.succeededFuture();
+        });
+    }
 }
@@ -1,10 +1,11 @@
 package ru.milko.student_vertx.repository.impl;
 
 import io.vertx.core.Future;
-import io.vertx.sqlclient.Pool;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.Tuple;
 import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.database.Lane;
+import ru.milko.student_vertx.database.ShardRouter;
 import ru.milko.student_vertx.exceptions.EntityNotFoundException;
 import ru.milko.student_vertx.model.Teacher;
 import ru.milko.student_vertx.repository.TeacherRepository;
@@ -18,18 +19,31 @@ import java.util.stream.IntStream;
 
 @Slf4j
 public class TeacherRepositoryImpl implements TeacherRepository {
-    private final Pool client;
-
-    public TeacherRepositoryImpl(Pool client) {
-        this.client = client;
+    private static final String SAVE = "INSERT INTO teachers (name) VALUES ($1) RETURNING id";
+    private static final String SAVE_COPY = "INSERT INTO teachers (name, id) VALUES ($1, $2)";
+    private static final String FIND_BY_ID = "SELECT id, name FROM teachers WHERE id = $1";
+    private static final String DELETE_BY_ID = "DELETE FROM teachers WHERE id = $1";
+    private static final String EXISTS_BY_ID = "SELECT EXISTS (SELECT 1 FROM teachers WHERE id = $1)";
+
+    // prepared on every pooled connection during the warmup
+    public static final List<String> STATEMENTS = List.of(
+            SAVE,
+            SAVE_COPY,
+            FIND_BY_ID,
+            DELETE_BY_ID,
+            EXISTS_BY_ID);
+
+    private final ShardRouter shards;
+
+    public TeacherRepositoryImpl(ShardRouter shards) {
+        this.shards = shards;
     }
 
     @Override
     public Future<Teacher> save(Teacher teacher) {
         log.info("*** in save, teacher = {}", teacher);
-        String query = "INSERT INTO teachers (name) VALUES ($1) RETURNING id";
 
-        return client.preparedQuery(query).execute(Tuple.of(teacher.getName())).map(rows -> {
+        return shards.insertReference(SAVE, SAVE_COPY, DELETE_BY_ID, Tuple.of(teacher.getName())).map(rows -> {
             Row row = rows.iterator().next();
             teacher.setId(row.getLong("id"));
             return teacher;
@@ -41,7 +55,7 @@ public class TeacherRepositoryImpl implements TeacherRepository {
         log.info("*** in findAll");
         String query = "SELECT id, name FROM teachers";
 
-        return client.query(query).execute().map(rows -> {
+        return shards.home().read(Lane.BULK, query).map(rows -> {
             List<Teacher> teachers = new ArrayList<>();
             for (Row row : rows) {
                 teachers.add(Teacher.builder()
@@ -56,9 +70,8 @@ public class TeacherRepositoryImpl implements TeacherRepository {
     @Override
     public Future<Optional<Teacher>> findById(Long id) {
         log.info("*** in findById, id = {}", id);
-        String query = "SELECT id, name FROM teachers WHERE id = $1";
 
-        return client.preparedQuery(query).execute(Tuple.of(id))
+        return shards.home().read(FIND_BY_ID, Tuple.of(id))
                 .map(rows -> {
                     if (rows.rowCount() == 0) {
                         return Optional.empty();
@@ -90,8 +103,7 @@ public class TeacherRepositoryImpl implements TeacherRepository {
 
         String query = queryBuilder.toString();
 
-        return client.preparedQuery(query)
-                .execute(params)
+        return shards.writeReference(query, params)
                 .compose(result -> {
                     if (result.rowCount() > 0) {
                         return Future.succeededFuture(teacher);
@@ -104,18 +116,14 @@ public class TeacherRepositoryImpl implements TeacherRepository {
     @Override
     public Future<Void> deleteById(Long id) {
         log.info("*** in deleteById, id = {}", id);
-        String query = "DELETE FROM teachers WHERE id = $1";
-        return client.preparedQuery(query).execute(Tuple.of(id)).mapEmpty();
+        return shards.writeReference(DELETE_BY_ID, Tuple.of(id)).mapEmpty();
     }
 
     @Override
     public Future<Boolean> existsById(Long id) {
         log.info("*** in existsById, id = {}", id);
 
-        String query = "SELECT EXISTS (SELECT 1 FROM teachers WHERE id = $1)";
-        return client
-                .preparedQuery(query)
-                .execute(Tuple.of(id))
+        return shards.home().read(EXISTS_BY_ID, Tuple.of(id))
                 .map(rowSet -> {
                     Row row = rowSet.iterator().next();
                     return row.getBoolean(0);
@@ -136,9 +144,7 @@ public class TeacherRepositoryImpl implements TeacherRepository {
 
         Object[] idsArray = teacherIds.toArray();
 
-        return client
-                .preparedQuery(query)
-                .execute(Tuple.wrap(idsArray))
+        return shards.home().read(query, Tuple.wrap(idsArray))
                 .map(rows -> {
                     List<Teacher> teachers = new ArrayList<>();
                     for (Row row : rows) {
@@ -0,0 +1,179 @@
+package ru.milko.student_vertx.repository.inmemory;
+
+import io.vertx.core.Future;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.exceptions.ConstraintViolationException;
+import ru.milko.student_vertx.exceptions.DuplicateFieldException;
+import ru.milko.student_vertx.exceptions.EntityNotFoundException;
+import ru.milko.student_vertx.model.Course;
+import ru.milko.student_vertx.repository.CourseRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.copy;
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.get;
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.link;
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.lookup;
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.unlink;
+
+@Slf4j
+public class InMemoryCourseRepository implements CourseRepository {
+    private final InMemoryStore store;
+
+    public InMemoryCourseRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Future<Course> save(Course course) {
+        log.info("*** in save, course = {}", course);
+        if (course.getTitle() == null) {
+            return Future.failedFuture(new ConstraintViolationException("Course title must not be null"));
+        }
+        synchronized (store.lock) {
+            if (store.courseIdByTitle.containsKey(course.getTitle())) {
+                return Future.failedFuture(new DuplicateFieldException("Course with title " + course.getTitle() + " already exists"));
+            }
+            course.setId(store.courseSequence.incrementAndGet());
+            store.courses.put(course.getId(), Course.builder()
+                    .id(course.getId())
+                    .title(course.getTitle())
+                    .build());
+            store.courseIdByTitle.put(course.getTitle(), course.getId());
+        }
+        return Future.succeededFuture(course);
+    }
+
+    @Override
+    public Future<List<Course>> findAll() {
+        log.info("*** in findAll");
+        List<Course> courses = new ArrayList<>();
+        for (Course course : store.courses.values()) {
+            courses.add(copy(course));
+        }
+        return Future.succeededFuture(courses);
+    }
+
+    @Override
+    public Future<List<Course>> findAllByTeacherId(Long teacherId) {
+        log.info("*** in findAllCoursesByTeacherId, teacherId = {}", teacherId);
+        return Future.succeededFuture(collect(lookup(store.courseIdsByTeacherId, teacherId)));
+    }
+
+    @Override
+    public Future<List<Course>> findAllByListOfTeacherIds(List<Long> teacherIds) {
+        log.info("*** in findAllByListOfTeacherIds, teacherIds = {}", teacherIds);
+        List<Course> courses = new ArrayList<>();
+        for (Long teacherId : teacherIds.stream().distinct().toList()) {
+            courses.addAll(collect(lookup(store.courseIdsByTeacherId, teacherId)));
+        }
+        return Future.succeededFuture(courses);
+    }
+
+    @Override
+    public Future<Optional<Course>> findById(Long id) {
+        log.info("*** in findById, id = {}", id);
+        Course course = get(store.courses, id);
+        return Future.succeededFuture(course == null ? Optional.empty() : Optional.of(copy(course)));
+    }
+
+    @Override
+    public Future<Course> update(Course course) {
+        log.info("*** in update, course = {}", course);
+        synchronized (store.lock) {
+            Course existing = get(store.courses, course.getId());
+            if (existing == null) {
+                return Future.failedFuture(new EntityNotFoundException("Course with ID " + course.getId() + " not found"));
+            }
+            String title = course.getTitle();
+            if (title != null && !title.equals(existing.getTitle())) {
+                if (store.courseIdByTitle.containsKey(title)) {
+                    return Future.failedFuture(new DuplicateFieldException("Course with title " + title + " already exists"));
+                }
+                Course updated = copy(existing);
+                updated.setTitle(title);
+                store.courses.put(updated.getId(), updated);
+                store.courseIdByTitle.remove(existing.getTitle());
+                store.courseIdByTitle.put(title, updated.getId());
+            }
+        }
+        return Future.succeededFuture(course);
+    }
+
+    @Override
+    public Future<Void> deleteById(Long id) {
+        log.info("*** in deleteById, id = {}", id);
+        synchronized (store.lock) {
+            Course removed = id == null ? null : store.courses.remove(id);
+            if (removed == null) {
+                return Future.succeededFuture();
+            }
+            store.courseIdByTitle.remove(removed.getTitle());
+            unlink(store.courseIdsByTeacherId, removed.getTeacherId(), id);
+            // ON DELETE CASCADE for course_student.course_id
+            for (Long studentId : lookup(store.studentIdsByCourseId, id)) {
+                unlink(store.courseIdsByStudentId, studentId, id);
+            }
+            store.studentIdsByCourseId.remove(id);
+        }
+        return Future.succeededFuture();
+    }
+
+    @Override
+    public Future<List<Course>> findAllByStudentId(Long id) {
+        return Future.succeededFuture(collect(lookup(store.courseIdsByStudentId, id)));
+    }
+
+    @Override
+    public Future<Map<Long, List<Course>>> findAllByListOfStudentIds(List<Long> studentIds) {
+        Map<Long, List<Course>> coursesByStudentId = new HashMap<>();
+        for (Long studentId : studentIds.stream().distinct().toList()) {
+            List<Course> courses = collect(lookup(store.courseIdsByStudentId, studentId));
+            if (!courses.isEmpty()) {
+                coursesByStudentId.put(studentId, courses);
+            }
+        }
+        return Future.succeededFuture(coursesByStudentId);
+    }
+
+    @Override
+    public Future<Boolean> existsById(Long id) {
+        log.info("*** in existsById, id = {}", id);
+        return Future.succeededFuture(get(store.courses, id) != null);
+    }
+
+    @Override
+    public Future<Void> setTeacherToCourse(Long courseId, Long teacherId) {
+        log.info("*** in setTeacherToCourse, courseId = {}, teacherId = {}", courseId, teacherId);
+        synchronized (store.lock) {
+            if (teacherId != null && !store.teachers.containsKey(teacherId)) {
+                return Future.failedFuture(new ConstraintViolationException("Teacher with ID " + teacherId + " does not exist"));
+            }
+            Course existing = get(store.courses, courseId);
+            if (existing == null) {
+                return Future.succeededFuture();
+            }
+            Course updated = copy(existing);
+            updated.setTeacherId(teacherId);
+            store.courses.put(courseId, updated);
+            unlink(store.courseIdsByTeacherId, existing.getTeacherId(), courseId);
+            link(store.courseIdsByTeacherId, teacherId, courseId);
+        }
+        return Future.succeededFuture();
+    }
+
+    private List<Course> collect(Iterable<Long> courseIds) {
+        List<Course> courses = new ArrayList<>();
+        for (Long courseId : courseIds) {
+            Course course = store.courses.get(courseId);
+            if (course != null) {
+                courses.add(copy(course));
+            }
+        }
+        return courses;
+    }
+}
@@ -0,0 +1,144 @@
+package ru.milko.student_vertx.repository.inmemory;
+
+import io.vertx.core.Future;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.exceptions.ConstraintViolationException;
+import ru.milko.student_vertx.exceptions.EntityNotFoundException;
+import ru.milko.student_vertx.model.Department;
+import ru.milko.student_vertx.repository.DepartmentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.copy;
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.get;
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.link;
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.lookup;
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.unlink;
+
+@Slf4j
+public class InMemoryDepartmentRepository implements DepartmentRepository {
+    private final InMemoryStore store;
+
+    public InMemoryDepartmentRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Future<Department> save(Department department) {
+        log.info("*** in save, department = {}", department);
+        if (department.getName() == null) {
+            return Future.failedFuture(new ConstraintViolationException("Department name must not be null"));
+        }
+        synchronized (store.lock) {
+            department.setId(store.departmentSequence.incrementAndGet());
+            store.departments.put(department.getId(), Department.builder()
+                    .id(department.getId())
+                    .name(department.getName())
+                    .build());
+        }
+        return Future.succeededFuture(department);
+    }
+
+    @Override
+    public Future<List<Department>> findAll() {
+        log.info("*** in findAll");
+        List<Department> departments = new ArrayList<>();
+        for (Department department : store.departments.values()) {
+            departments.add(copy(department));
+        }
+        return Future.succeededFuture(departments);
+    }
+
+    @Override
+    public Future<List<Department>> findAllByHeadIds(List<Long> teacherIds) {
+        log.info("*** in findAllByHeadIds, teacherIds = {}", teacherIds);
+        List<Department> departments = new ArrayList<>();
+        for (Long teacherId : teacherIds.stream().distinct().toList()) {
+            for (Long departmentId : lookup(store.departmentIdsByHeadId, teacherId)) {
+                Department department = store.departments.get(departmentId);
+                if (department != null) {
+                    departments.add(copy(department));
+                }
+            }
+        }
+        return Future.succeededFuture(departments);
+    }
+
+    @Override
+    public Future<Optional<Department>> findById(Long id) {
+        log.info("*** in findById, id = {}", id);
+        Department department = get(store.departments, id);
+        return Future.succeededFuture(department == null ? Optional.empty() : Optional.of(copy(department)));
+    }
+
+    @Override
+    public Future<Optional<Department>> findByHeadOfDepartmentId(Long headOfDepartmentId) {
+        log.info("*** in findByHeadOfDepartmentId, headOfDepartmentId = {}", headOfDepartmentId);
+        Set<Long> departmentIds = lookup(store.departmentIdsByHeadId, headOfDepartmentId);
+        return Future.succeededFuture(departmentIds.stream()
+                .sorted()
+                .map(store.departments::get)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .map(InMemoryStore::copy));
+    }
+
+    @Override
+    public Future<Department> update(Department department) {
+        log.info("*** in update, department = {}", department);
+        synchronized (store.lock) {
+            Department existing = get(store.departments, department.getId());
+            if (existing == null) {
+                return Future.failedFuture(new EntityNotFoundException("Department with ID " + department.getId() + " not found"));
+            }
+            Department updated = copy(existing);
+            if (department.getName() != null) {
+                updated.setName(department.getName());
+            }
+            store.departments.put(updated.getId(), updated);
+        }
+        return Future.succeededFuture(department);
+    }
+
+    @Override
+    public Future<Void> deleteById(Long id) {
+        log.info("*** in deleteById, id = {}", id);
+        synchronized (store.lock) {
+            Department removed = id == null ? null : store.departments.remove(id);
+            if (removed != null) {
+                unlink(store.departmentIdsByHeadId, removed.getHeadOfDepartmentId(), id);
+            }
+        }
+        return Future.succeededFuture();
+    }
+
+    @Override
+    public Future<Boolean> existsById(Long id) {
+        log.info("*** in existsById, id = {}", id);
+        return Future.succeededFuture(get(store.departments, id) != null);
+    }
+
+    @Override
+    public Future<Void> setTeacherToDepartment(Long departmentId, Long teacherId) {
+        log.info("*** in setTeacherToDepartment, departmentId = {}, teacherId = {}", departmentId, teacherId);
+        synchronized (store.lock) {
+            if (teacherId != null && !store.teachers.containsKey(teacherId)) {
+                return Future.failedFuture(new ConstraintViolationException("Teacher with ID " + teacherId + " does not exist"));
+            }
+            Department existing = get(store.departments, departmentId);
+            if (existing == null) {
+                return Future.succeededFuture();
+            }
+            Department updated = copy(existing);
+            updated.setHeadOfDepartmentId(teacherId);
+            store.departments.put(departmentId, updated);
+            unlink(store.departmentIdsByHeadId, existing.getHeadOfDepartmentId(), departmentId);
+            link(store.departmentIdsByHeadId, teacherId, departmentId);
+        }
+        return Future.succeededFuture();
+    }
+}
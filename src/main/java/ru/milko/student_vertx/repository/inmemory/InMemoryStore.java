@@ -0,0 +1,97 @@
+package ru.milko.student_vertx.repository.inmemory;
+
+import ru.milko.student_vertx.model.Course;
+import ru.milko.student_vertx.model.Department;
+import ru.milko.student_vertx.model.Student;
+import ru.milko.student_vertx.model.Teacher;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tables of the in-memory repositories; mutations take the store lock so the indexes never disagree.
+ */
+public class InMemoryStore {
+    final ConcurrentNavigableMap<Long, Teacher> teachers = new ConcurrentSkipListMap<>();
+    final ConcurrentNavigableMap<Long, Department> departments = new ConcurrentSkipListMap<>();
+    final ConcurrentNavigableMap<Long, Course> courses = new ConcurrentSkipListMap<>();
+    final ConcurrentNavigableMap<Long, Student> students = new ConcurrentSkipListMap<>();
+
+    final AtomicLong teacherSequence = new AtomicLong();
+    final AtomicLong departmentSequence = new AtomicLong();
+    final AtomicLong courseSequence = new AtomicLong();
+    final AtomicLong studentSequence = new AtomicLong();
+
+    // UNIQUE (title) on courses, UNIQUE (name) on students
+    final ConcurrentMap<String, Long> courseIdByTitle = new ConcurrentHashMap<>();
+    final ConcurrentMap<String, Long> studentIdByName = new ConcurrentHashMap<>();
+
+    // course_student in both directions
+    final ConcurrentMap<Long, Set<Long>> courseIdsByStudentId = new ConcurrentHashMap<>();
+    final ConcurrentMap<Long, Set<Long>> studentIdsByCourseId = new ConcurrentHashMap<>();
+
+    // courses.teacher_id and departments.head_of_department_id
+    final ConcurrentMap<Long, Set<Long>> courseIdsByTeacherId = new ConcurrentHashMap<>();
+    final ConcurrentMap<Long, Set<Long>> departmentIdsByHeadId = new ConcurrentHashMap<>();
+
+    final Object lock = new Object();
+
+    static void link(ConcurrentMap<Long, Set<Long>> index, Long key, Long value) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(value);
+        }
+    }
+
+    static void unlink(ConcurrentMap<Long, Set<Long>> index, Long key, Long value) {
+        if (key != null) {
+            index.computeIfPresent(key, (k, values) -> {
+                values.remove(value);
+                return values.isEmpty() ? null : values;
+            });
+        }
+    }
+
+    static <T> T get(ConcurrentMap<Long, T> table, Long id) {
+        return id == null ? null : table.get(id);
+    }
+
+    static Set<Long> lookup(ConcurrentMap<Long, Set<Long>> index, Long key) {
+        return key == null ? Collections.emptySet() : index.getOrDefault(key, Collections.emptySet());
+    }
+
+    static Teacher copy(Teacher teacher) {
+        return Teacher.builder()
+                .id(teacher.getId())
+                .name(teacher.getName())
+                .build();
+    }
+
+    static Department copy(Department department) {
+        return Department.builder()
+                .id(department.getId())
+                .name(department.getName())
+                .headOfDepartmentId(department.getHeadOfDepartmentId())
+                .build();
+    }
+
+    static Course copy(Course course) {
+        return Course.builder()
+                .id(course.getId())
+                .title(course.getTitle())
+                .teacherId(course.getTeacherId())
+                .build();
+    }
+
+    static Student copy(Student student) {
+        return Student.builder()
+                .id(student.getId())
+                .name(student.getName())
+                .email(student.getEmail())
+                .build();
+    }
+}
@@ -0,0 +1,179 @@
+package ru.milko.student_vertx.repository.inmemory;
+
+import io.vertx.core.Future;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.exceptions.ConstraintViolationException;
+import ru.milko.student_vertx.exceptions.DuplicateFieldException;
+import ru.milko.student_vertx.exceptions.EntityNotFoundException;
+import ru.milko.student_vertx.model.Course;
+import ru.milko.student_vertx.model.Student;
+import ru.milko.student_vertx.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.copy;
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.get;
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.link;
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.lookup;
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.unlink;
+
+@Slf4j
+public class InMemoryStudentRepository implements StudentRepository {
+    private final InMemoryStore store;
+
+    public InMemoryStudentRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Future<Student> save(Student student) {
+        log.info("*** in save, student = {}", student);
+        if (student.getName() == null || student.getEmail() == null) {
+            return Future.failedFuture(new ConstraintViolationException("Student name and email must not be null"));
+        }
+        synchronized (store.lock) {
+            if (store.studentIdByName.containsKey(student.getName())) {
+                return Future.failedFuture(new DuplicateFieldException("Student with name " + student.getName() + " already exists"));
+            }
+            student.setId(store.studentSequence.incrementAndGet());
+            store.students.put(student.getId(), copy(student));
+            store.studentIdByName.put(student.getName(), student.getId());
+        }
+        return Future.succeededFuture(student);
+    }
+
+    @Override
+    public Future<List<Student>> findAll() {
+        log.info("*** in findAll");
+        List<Student> students = new ArrayList<>();
+        for (Student student : store.students.values()) {
+            students.add(copy(student));
+        }
+        return Future.succeededFuture(students);
+    }
+
+    @Override
+    public Future<List<Student>> findAllByCourseId(Long courseId) {
+        log.info("*** in findAllByCourseId, courseId = {}", courseId);
+        return Future.succeededFuture(collect(lookup(store.studentIdsByCourseId, courseId)));
+    }
+
+    @Override
+    public Future<Map<Long, List<Student>>> findAllStudentsByCourseIds(List<Long> courseIds) {
+        Map<Long, List<Student>> studentsByCourseId = new HashMap<>();
+        for (Long courseId : courseIds.stream().distinct().toList()) {
+            List<Student> students = collect(lookup(store.studentIdsByCourseId, courseId));
+            if (!students.isEmpty()) {
+                studentsByCourseId.put(courseId, students);
+            }
+        }
+        return Future.succeededFuture(studentsByCourseId);
+    }
+
+    @Override
+    public Future<Optional<Student>> findById(Long id) {
+        log.info("*** in findById, id = {}", id);
+        Student student = get(store.students, id);
+        return Future.succeededFuture(student == null ? Optional.empty() : Optional.of(copy(student)));
+    }
+
+    @Override
+    public Future<Student> update(Student student) {
+        log.info("*** in update, student = {}", student);
+        synchronized (store.lock) {
+            Student existing = get(store.students, student.getId());
+            if (existing == null) {
+                return Future.failedFuture(new EntityNotFoundException("Student with ID " + student.getId() + " not found"));
+            }
+            String name = student.getName();
+            boolean renamed = name != null && !name.equals(existing.getName());
+            if (renamed && store.studentIdByName.containsKey(name)) {
+                return Future.failedFuture(new DuplicateFieldException("Student with name " + name + " already exists"));
+            }
+            Student updated = copy(existing);
+            if (name != null) {
+                updated.setName(name);
+            }
+            if (student.getEmail() != null) {
+                updated.setEmail(student.getEmail());
+            }
+            store.students.put(updated.getId(), updated);
+            if (renamed) {
+                store.studentIdByName.remove(existing.getName());
+                store.studentIdByName.put(name, updated.getId());
+            }
+        }
+        return Future.succeededFuture(student);
+    }
+
+    @Override
+    public Future<Void> deleteById(Long id) {
+        log.info("*** in deleteById, id = {}", id);
+        synchronized (store.lock) {
+            Student removed = id == null ? null : store.students.remove(id);
+            if (removed == null) {
+                return Future.succeededFuture();
+            }
+            store.studentIdByName.remove(removed.getName());
+            // ON DELETE CASCADE for course_student.student_id
+            for (Long courseId : lookup(store.courseIdsByStudentId, id)) {
+                unlink(store.studentIdsByCourseId, courseId, id);
+            }
+            store.courseIdsByStudentId.remove(id);
+        }
+        return Future.succeededFuture();
+    }
+
+    @Override
+    public Future<List<Course>> findAllCoursesByStudentId(Long id) {
+        log.info("*** in getAllCoursesByStudentId, StudentId = {}", id);
+        List<Course> courses = new ArrayList<>();
+        for (Long courseId : lookup(store.courseIdsByStudentId, id)) {
+            Course course = store.courses.get(courseId);
+            if (course != null) {
+                courses.add(copy(course));
+            }
+        }
+        return Future.succeededFuture(courses);
+    }
+
+    @Override
+    public Future<Void> addCourseToStudent(Long studentId, Long courseId) {
+        log.info("*** in addCourseToStudent, studentId = {}, courseId = {}", studentId, courseId);
+        synchronized (store.lock) {
+            if (get(store.students, studentId) == null) {
+                return Future.failedFuture(new ConstraintViolationException("Student with ID " + studentId + " does not exist"));
+            }
+            if (get(store.courses, courseId) == null) {
+                return Future.failedFuture(new ConstraintViolationException("Course with ID " + courseId + " does not exist"));
+            }
+            if (lookup(store.courseIdsByStudentId, studentId).contains(courseId)) {
+                return Future.failedFuture(new DuplicateFieldException("Student with ID " + studentId + " is already enrolled in course with ID " + courseId));
+            }
+            link(store.courseIdsByStudentId, studentId, courseId);
+            link(store.studentIdsByCourseId, courseId, studentId);
+        }
+        return Future.succeededFuture();
+    }
+
+    @Override
+    public Future<Boolean> existsById(Long id) {
+        log.info("*** in existsById, id = {}", id);
+        return Future.succeededFuture(get(store.students, id) != null);
+    }
+
+    private List<Student> collect(Iterable<Long> studentIds) {
+        List<Student> students = new ArrayList<>();
+        for (Long studentId : studentIds) {
+            Student student = store.students.get(studentId);
+            if (student != null) {
+                students.add(copy(student));
+            }
+        }
+        return students;
+    }
+}
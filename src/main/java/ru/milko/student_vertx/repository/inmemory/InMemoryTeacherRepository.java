@@ -0,0 +1,119 @@
+package ru.milko.student_vertx.repository.inmemory;
+
+import io.vertx.core.Future;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.exceptions.ConstraintViolationException;
+import ru.milko.student_vertx.exceptions.EntityNotFoundException;
+import ru.milko.student_vertx.model.Course;
+import ru.milko.student_vertx.model.Department;
+import ru.milko.student_vertx.model.Teacher;
+import ru.milko.student_vertx.repository.TeacherRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.copy;
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.get;
+import static ru.milko.student_vertx.repository.inmemory.InMemoryStore.lookup;
+
+@Slf4j
+public class InMemoryTeacherRepository implements TeacherRepository {
+    private final InMemoryStore store;
+
+    public InMemoryTeacherRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Future<Teacher> save(Teacher teacher) {
+        log.info("*** in save, teacher = {}", teacher);
+        if (teacher.getName() == null) {
+            return Future.failedFuture(new ConstraintViolationException("Teacher name must not be null"));
+        }
+        synchronized (store.lock) {
+            teacher.setId(store.teacherSequence.incrementAndGet());
+            store.teachers.put(teacher.getId(), copy(teacher));
+        }
+        return Future.succeededFuture(teacher);
+    }
+
+    @Override
+    public Future<List<Teacher>> findAll() {
+        log.info("*** in findAll");
+        List<Teacher> teachers = new ArrayList<>();
+        for (Teacher teacher : store.teachers.values()) {
+            teachers.add(copy(teacher));
+        }
+        return Future.succeededFuture(teachers);
+    }
+
+    @Override
+    public Future<Optional<Teacher>> findById(Long id) {
+        log.info("*** in findById, id = {}", id);
+        Teacher teacher = get(store.teachers, id);
+        return Future.succeededFuture(teacher == null ? Optional.empty() : Optional.of(copy(teacher)));
+    }
+
+    @Override
+    public Future<Teacher> update(Teacher teacher) {
+        log.info("*** in update, teacher = {}", teacher);
+        synchronized (store.lock) {
+            Teacher existing = get(store.teachers, teacher.getId());
+            if (existing == null) {
+                return Future.failedFuture(new EntityNotFoundException("Teacher with ID " + teacher.getId() + " not found"));
+            }
+            Teacher updated = copy(existing);
+            if (teacher.getName() != null) {
+                updated.setName(teacher.getName());
+            }
+            store.teachers.put(updated.getId(), updated);
+        }
+        return Future.succeededFuture(teacher);
+    }
+
+    @Override
+    public Future<Void> deleteById(Long id) {
+        log.info("*** in deleteById, id = {}", id);
+        synchronized (store.lock) {
+            if (id == null || store.teachers.remove(id) == null) {
+                return Future.succeededFuture();
+            }
+            // ON DELETE SET NULL for courses.teacher_id and departments.head_of_department_id
+            for (Long courseId : lookup(store.courseIdsByTeacherId, id)) {
+                Course course = copy(store.courses.get(courseId));
+                course.setTeacherId(null);
+                store.courses.put(courseId, course);
+            }
+            for (Long departmentId : lookup(store.departmentIdsByHeadId, id)) {
+                Department department = copy(store.departments.get(departmentId));
+                department.setHeadOfDepartmentId(null);
+                store.departments.put(departmentId, department);
+            }
+            store.courseIdsByTeacherId.remove(id);
+            store.departmentIdsByHeadId.remove(id);
+        }
+        return Future.succeededFuture();
+    }
+
+    @Override
+    public Future<Boolean> existsById(Long id) {
+        log.info("*** in existsById, id = {}", id);
+        return Future.succeededFuture(get(store.teachers, id) != null);
+    }
+
+    @Override
+    public Future<List<Teacher>> findAllByIds(List<Long> teacherIds) {
+        List<Teacher> teachers = new ArrayList<>();
+        if (teacherIds == null) {
+            return Future.succeededFuture(teachers);
+        }
+        for (Long id : teacherIds.stream().distinct().toList()) {
+            Teacher teacher = get(store.teachers, id);
+            if (teacher != null) {
+                teachers.add(copy(teacher));
+            }
+        }
+        return Future.succeededFuture(teachers);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.milko.student_vertx.rest;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.RoutingContext;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.utils.AdaptiveLimiter;
+
+/**
+ * Rejects requests beyond the adaptive limit instead of queueing them behind a slow database.
+ */
+@Slf4j
+public class AdmissionHandler {
+    private final AdaptiveLimiter limiter;
+    private final boolean enabled;
+
+    public AdmissionHandler(Vertx vertx, Config config) {
+        this.enabled = Boolean.parseBoolean(config.get("http.admission.enabled", "false"));
+        int maxLimit = Integer.parseInt(config.get("http.admission.limit.max", "1000"));
+        this.limiter = new AdaptiveLimiter(vertx, "http", config, "http.admission", maxLimit);
+    }
+
+    public AdaptiveLimiter limiter() {
+        return limiter;
+    }
+
+    public void handle(RoutingContext context) {
+        if (!enabled) {
+            context.next();
+            return;
+        }
+        limiter.acquire()
+                .onSuccess(permit -> {
+                    long start = System.nanoTime();
+                    // server errors say nothing about the latency of healthy requests
+                    context.addEndHandler(ar -> limiter.release(ar.succeeded() && context.response().getStatusCode() < 500
+                            ? System.nanoTime() - start
+                            : -1));
+                    context.next();
+                })
+                .onFailure(failure -> {
+                    log.debug("*** rejecting {} {}: {}", context.request().method(), context.request().path(), failure.getMessage());
+                    context.fail(failure);
+                });
+    }
+}
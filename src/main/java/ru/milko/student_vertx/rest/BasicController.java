@@ -1,17 +1,81 @@
 package ru.milko.student_vertx.rest;
 
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.Json;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
+import ru.milko.student_vertx.context.CancellationStats;
+import ru.milko.student_vertx.context.ServerTiming;
+import ru.milko.student_vertx.metrics.Metrics;
+import ru.milko.student_vertx.utils.ResponseCompression;
+import ru.milko.student_vertx.utils.WorkerOffload;
+
+import java.io.IOException;
+import java.util.Collection;
 
 public abstract class BasicController {
     public abstract void registerRoutes(Router router);
 
     protected void respondSuccess(RoutingContext context, int statusCode, Object body) {
-        context.response()
-                .setStatusCode(statusCode)
-                .putHeader("Content-Type", "application/json")
-                .end(Json.encodePrettily(body));
+        if (isAnswered(context)) {
+            CancellationStats.responseSkipped();
+            return;
+        }
+        int size = body instanceof Collection<?> collection ? collection.size() : 1;
+        String storeKey = context.request().method() == HttpMethod.GET ? context.request().uri() : null;
+        String acceptEncoding = context.request().getHeader(HttpHeaders.ACCEPT_ENCODING);
+        ServerTiming timing = ServerTiming.current();
+        if (timing != null) {
+            timing.responding(System.nanoTime());
+        }
+        WorkerOffload.run(size, () -> compress(storeKey, acceptEncoding, encode(body, timing), timing))
+                .onSuccess(encoded -> {
+                    if (isAnswered(context)) {
+                        CancellationStats.responseSkipped();
+                        return;
+                    }
+                    if (encoded.encoding() != null) {
+                        context.response().putHeader(HttpHeaders.CONTENT_ENCODING, encoded.encoding().token());
+                    }
+                    if (ResponseCompression.isEnabled()) {
+                        context.response().putHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                    }
+                    context.response()
+                            .setStatusCode(statusCode)
+                            .putHeader("Content-Type", "application/json")
+                            .end(encoded.body());
+                })
+                .onFailure(context::fail);
+    }
+
+    /**
+     * The client is gone or the request was already answered, e.g. with 504 by its deadline timer.
+     */
+    private static boolean isAnswered(RoutingContext context) {
+        HttpServerResponse response = context.response();
+        return response.closed() || response.ended() || response.headWritten();
+    }
+
+    private static String encode(Object body, ServerTiming timing) {
+        long start = System.nanoTime();
+        String json = Json.encodePrettily(body);
+        long nanos = System.nanoTime() - start;
+        Metrics.recordJsonEncode(nanos);
+        if (timing != null) {
+            timing.serialized(nanos);
+        }
+        return json;
+    }
+
+    private static ResponseCompression.Encoded compress(String storeKey, String acceptEncoding, String json, ServerTiming timing) throws IOException {
+        long start = System.nanoTime();
+        ResponseCompression.Encoded encoded = ResponseCompression.encode(storeKey, acceptEncoding, json);
+        if (timing != null && encoded.encoding() != null) {
+            timing.compressed(System.nanoTime() - start);
+        }
+        return encoded;
     }
 
     protected void respondError(RoutingContext context, int statusCode, String message) {
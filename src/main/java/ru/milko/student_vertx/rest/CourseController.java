@@ -4,6 +4,8 @@ import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.BodyHandler;
 import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.context.RequestScopeHandler;
+import ru.milko.student_vertx.database.Lane;
 import ru.milko.student_vertx.dto.CourseDto;
 import ru.milko.student_vertx.service.CourseService;
 
@@ -23,6 +25,7 @@ public class CourseController extends BasicController {
                 .handler(this::create);
 
         router.get(COURSES_PATH)
+                .handler(RequestScopeHandler.lane(Lane.BULK))
                 .handler(this::findAll);
 
         router.get(COURSES_PATH + "/:id")
@@ -4,6 +4,8 @@ import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.BodyHandler;
 import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.context.RequestScopeHandler;
+import ru.milko.student_vertx.database.Lane;
 import ru.milko.student_vertx.dto.DepartmentDto;
 import ru.milko.student_vertx.service.DepartmentService;
 
@@ -23,6 +25,7 @@ public class DepartmentController extends BasicController {
                 .handler(this::create);
 
         router.get(DEPARTMENTS_PATH)
+                .handler(RequestScopeHandler.lane(Lane.BULK))
                 .handler(this::findAll);
 
         router.get(DEPARTMENTS_PATH + "/:id")
@@ -0,0 +1,115 @@
+package ru.milko.student_vertx.rest;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.sqlclient.Pool;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.config.DatabasePoolConfig;
+import ru.milko.student_vertx.config.RepositoryType;
+import ru.milko.student_vertx.database.FlywayMigration;
+import ru.milko.student_vertx.utils.AdaptiveLimiter;
+import ru.milko.student_vertx.utils.EventLoopMonitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static ru.milko.student_vertx.utils.PathUtils.HEALTH_LIVE_PATH;
+import static ru.milko.student_vertx.utils.PathUtils.HEALTH_READY_PATH;
+
+/**
+ * The readiness probe bypasses the limiters but not the pool, so an exhausted pool fails it.
+ */
+@Slf4j
+public class HealthController extends BasicController {
+    private final EventLoopMonitor eventLoopMonitor;
+    private final boolean postgres;
+    private final int maxQueue;
+    private final long maxLagMillis;
+    private final long dbTimeoutMillis;
+
+    public HealthController(EventLoopMonitor eventLoopMonitor, Config config) {
+        this.eventLoopMonitor = eventLoopMonitor;
+        this.postgres = RepositoryType.from(config) == RepositoryType.POSTGRES;
+        this.maxQueue = Integer.parseInt(config.get("health.pool.queue.max", "50"));
+        this.maxLagMillis = Long.parseLong(config.get("health.eventloop.lag.max.ms", "200"));
+        this.dbTimeoutMillis = Long.parseLong(config.get("health.db.timeout.ms", "1000"));
+    }
+
+    public void registerRoutes(Router router) {
+        router.get(HEALTH_LIVE_PATH)
+                .handler(this::live);
+
+        router.get(HEALTH_READY_PATH)
+                .handler(this::ready);
+    }
+
+    private void live(RoutingContext context) {
+        respondSuccess(context, 200, new JsonObject().put("status", "UP"));
+    }
+
+    private void ready(RoutingContext context) {
+        JsonObject checks = new JsonObject();
+        boolean up = true;
+
+        if (postgres) {
+            boolean migrated = FlywayMigration.isMigrated();
+            checks.put("migration", check(migrated));
+
+            int deepestQueue = 0;
+            String deepestLimiter = null;
+            for (AdaptiveLimiter limiter : AdaptiveLimiter.instances()) {
+                int queueSize = limiter.queueSize();
+                if (limiter.prefix().startsWith("database.") && queueSize >= deepestQueue) {
+                    deepestQueue = queueSize;
+                    deepestLimiter = limiter.name();
+                }
+            }
+            boolean poolOk = deepestQueue <= maxQueue;
+            checks.put("pool", check(poolOk).put("queue", deepestQueue).put("node", deepestLimiter).put("max", maxQueue));
+            up = migrated && poolOk;
+        }
+
+        long lag = eventLoopMonitor.maxLagMillis();
+        boolean eventLoopOk = lag <= maxLagMillis;
+        checks.put("eventLoop", check(eventLoopOk).put("lagMs", lag).put("maxMs", maxLagMillis));
+        up &= eventLoopOk;
+
+        boolean ready = up;
+        databaseReachable()
+                .onComplete(ar -> {
+                    if (postgres) {
+                        JsonObject database = check(ar.succeeded());
+                        if (ar.failed()) {
+                            database.put("error", ar.cause().getMessage());
+                        }
+                        checks.put("database", database);
+                    }
+                    boolean allUp = ready && ar.succeeded();
+                    if (!allUp) {
+                        log.warn("*** not ready: {}", checks);
+                    }
+                    respondSuccess(context, allUp ? 200 : 503, new JsonObject()
+                            .put("status", allUp ? "UP" : "DOWN")
+                            .put("checks", checks));
+                });
+    }
+
+    private Future<Void> databaseReachable() {
+        if (!postgres) {
+            return Future.succeededFuture();
+        }
+        List<Future<?>> probes = new ArrayList<>();
+        for (Pool pool : DatabasePoolConfig.writablePools()) {
+            probes.add(pool.query("SELECT 1").execute().timeout(dbTimeoutMillis, TimeUnit.MILLISECONDS));
+        }
+        return Future.all(probes).mapEmpty();
+    }
+
+    private static JsonObject check(boolean up) {
+        return new JsonObject().put("status", up ? "UP" : "DOWN");
+    }
+}
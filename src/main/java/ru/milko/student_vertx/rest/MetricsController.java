@@ -0,0 +1,24 @@
+package ru.milko.student_vertx.rest;
+
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import ru.milko.student_vertx.metrics.Metrics;
+
+import static ru.milko.student_vertx.utils.PathUtils.METRICS_PATH;
+
+public class MetricsController extends BasicController {
+
+    public void registerRoutes(Router router) {
+        router.get(METRICS_PATH)
+                .handler(this::scrape);
+    }
+
+    private void scrape(RoutingContext context) {
+        context.vertx().executeBlocking(Metrics::scrape, false)
+                .onSuccess(text -> context.response()
+                        .putHeader(HttpHeaders.CONTENT_TYPE, Metrics.CONTENT_TYPE)
+                        .end(text))
+                .onFailure(context::fail);
+    }
+}
@@ -5,6 +5,8 @@ import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.BodyHandler;
 import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.context.RequestScopeHandler;
+import ru.milko.student_vertx.database.Lane;
 import ru.milko.student_vertx.dto.StudentDto;
 import ru.milko.student_vertx.service.StudentService;
 
@@ -24,6 +26,7 @@ public class StudentController extends BasicController {
                 .handler(this::create);
 
         router.get(STUDENTS_PATH)
+                .handler(RequestScopeHandler.lane(Lane.BULK))
                 .handler(this::findAll);
 
         router.get(STUDENTS_PATH + "/:id")
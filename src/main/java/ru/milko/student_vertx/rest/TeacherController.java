@@ -3,6 +3,8 @@ package ru.milko.student_vertx.rest;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.BodyHandler;
+import ru.milko.student_vertx.context.RequestScopeHandler;
+import ru.milko.student_vertx.database.Lane;
 import ru.milko.student_vertx.dto.TeacherDto;
 import ru.milko.student_vertx.service.TeacherService;
 
@@ -21,6 +23,7 @@ public class TeacherController extends BasicController {
                 .handler(this::create);
 
         router.get(TEACHERS_PATH)
+                .handler(RequestScopeHandler.lane(Lane.BULK))
                 .handler(this::findAll);
 
         router.get(TEACHERS_PATH + "/:id")
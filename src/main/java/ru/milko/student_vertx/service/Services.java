@@ -0,0 +1,4 @@
+package ru.milko.student_vertx.service;
+
+public record Services(StudentService student, CourseService course, TeacherService teacher, DepartmentService department) {
+}
@@ -15,6 +15,7 @@ import ru.milko.student_vertx.repository.CourseRepository;
 import ru.milko.student_vertx.repository.StudentRepository;
 import ru.milko.student_vertx.repository.TeacherRepository;
 import ru.milko.student_vertx.service.CourseService;
+import ru.milko.student_vertx.utils.WorkerOffload;
 
 import java.util.Collections;
 import java.util.List;
@@ -24,12 +25,12 @@ import java.util.stream.Collectors;
 
 @Slf4j
 public class CourseServiceImpl implements CourseService {
-    private final CourseRepository courseRepository;
-    private final TeacherRepository teacherRepository;
-    private final StudentRepository studentRepository;
-    private final CourseMapper courseMapper;
-    private final TeacherMapper teacherMapper;
-    private final StudentMapper studentMapper;
+    protected final CourseRepository courseRepository;
+    protected final TeacherRepository teacherRepository;
+    protected final StudentRepository studentRepository;
+    protected final CourseMapper courseMapper;
+    protected final TeacherMapper teacherMapper;
+    protected final StudentMapper studentMapper;
 
     public CourseServiceImpl(CourseRepository courseRepository, TeacherRepository teacherRepository, StudentRepository studentRepository, CourseMapper courseMapper, TeacherMapper teacherMapper, StudentMapper studentMapper) {
         this.courseRepository = courseRepository;
@@ -75,7 +76,7 @@ public class CourseServiceImpl implements CourseService {
 
             Future<Map<Long, List<Student>>> studentsByCourseIdFuture = studentRepository.findAllStudentsByCourseIds(courseIds);
 
-            return Future.all(teacherMapFuture, studentsByCourseIdFuture).map(cf -> {
+            return Future.all(teacherMapFuture, studentsByCourseIdFuture).compose(cf -> WorkerOffload.run(courses.size(), () -> {
                 Map<Long, TeacherDto> teacherMap = cf.resultAt(0);
                 Map<Long, List<Student>> studentsByCourseId = cf.resultAt(1);
 
@@ -92,7 +93,7 @@ public class CourseServiceImpl implements CourseService {
 
                     return courseDto;
                 }).collect(Collectors.toList());
-            });
+            }));
         });
     }
 
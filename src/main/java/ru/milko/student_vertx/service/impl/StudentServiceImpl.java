@@ -16,6 +16,7 @@ import ru.milko.student_vertx.repository.CourseRepository;
 import ru.milko.student_vertx.repository.StudentRepository;
 import ru.milko.student_vertx.repository.TeacherRepository;
 import ru.milko.student_vertx.service.StudentService;
+import ru.milko.student_vertx.utils.WorkerOffload;
 
 import java.util.Collections;
 import java.util.List;
@@ -25,12 +26,12 @@ import java.util.stream.Collectors;
 
 @Slf4j
 public class StudentServiceImpl implements StudentService {
-    private final StudentRepository studentRepository;
-    private final CourseRepository courseRepository;
-    private final TeacherRepository teacherRepository;
-    private final StudentMapper studentMapper;
-    private final CourseMapper courseMapper;
-    private final TeacherMapper teacherMapper;
+    protected final StudentRepository studentRepository;
+    protected final CourseRepository courseRepository;
+    protected final TeacherRepository teacherRepository;
+    protected final StudentMapper studentMapper;
+    protected final CourseMapper courseMapper;
+    protected final TeacherMapper teacherMapper;
 
     public StudentServiceImpl(StudentRepository studentRepository, CourseRepository courseRepository, TeacherRepository teacherRepository,
                               StudentMapper studentMapper, CourseMapper courseMapper, TeacherMapper teacherMapper) {
@@ -73,7 +74,7 @@ public class StudentServiceImpl implements StudentService {
                         .toList();
 
                 if (teacherIds.isEmpty()) {
-                    return Future.succeededFuture(
+                    return WorkerOffload.run(students.size(), () ->
                             students.stream()
                                     .map(student -> {
                                         StudentDto studentDto = studentMapper.toStudentDto(student);
@@ -89,7 +90,7 @@ public class StudentServiceImpl implements StudentService {
                     );
                 }
 
-                return teacherRepository.findAllByIds(teacherIds).map(teachers -> {
+                return teacherRepository.findAllByIds(teacherIds).compose(teachers -> WorkerOffload.run(students.size(), () -> {
                     Map<Long, TeacherDto> teacherMap = teachers.stream()
                             .collect(Collectors.toMap(Teacher::getId, teacherMapper::toTeacherDto));
 
@@ -109,7 +110,7 @@ public class StudentServiceImpl implements StudentService {
                                 return studentDto;
                             })
                             .toList();
-                });
+                }));
             });
         });
     }
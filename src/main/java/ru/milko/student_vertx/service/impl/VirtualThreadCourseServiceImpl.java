@@ -0,0 +1,104 @@
+package ru.milko.student_vertx.service.impl;
+
+import io.vertx.core.Future;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.dto.CourseDto;
+import ru.milko.student_vertx.dto.TeacherDto;
+import ru.milko.student_vertx.exceptions.EntityNotFoundException;
+import ru.milko.student_vertx.mapper.CourseMapper;
+import ru.milko.student_vertx.mapper.StudentMapper;
+import ru.milko.student_vertx.mapper.TeacherMapper;
+import ru.milko.student_vertx.model.Course;
+import ru.milko.student_vertx.model.Student;
+import ru.milko.student_vertx.model.Teacher;
+import ru.milko.student_vertx.repository.CourseRepository;
+import ru.milko.student_vertx.repository.StudentRepository;
+import ru.milko.student_vertx.repository.TeacherRepository;
+import ru.milko.student_vertx.utils.VirtualThreads;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static io.vertx.core.Future.await;
+
+/**
+ * Independent queries are started before the first {@code await}.
+ */
+@Slf4j
+public class VirtualThreadCourseServiceImpl extends CourseServiceImpl {
+
+    public VirtualThreadCourseServiceImpl(CourseRepository courseRepository, TeacherRepository teacherRepository, StudentRepository studentRepository,
+                                          CourseMapper courseMapper, TeacherMapper teacherMapper, StudentMapper studentMapper) {
+        super(courseRepository, teacherRepository, studentRepository, courseMapper, teacherMapper, studentMapper);
+    }
+
+    @Override
+    public Future<List<CourseDto>> findAll() {
+        log.info("*** in findAll");
+        return VirtualThreads.call(() -> {
+            List<Course> courses = await(courseRepository.findAll());
+            if (courses.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<Long> courseIds = courses.stream()
+                    .map(Course::getId)
+                    .toList();
+            List<Long> teacherIds = courses.stream()
+                    .map(Course::getTeacherId)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList();
+
+            Future<Map<Long, List<Student>>> studentsFuture = studentRepository.findAllStudentsByCourseIds(courseIds);
+            Future<List<Teacher>> teachersFuture = teacherIds.isEmpty()
+                    ? Future.succeededFuture(Collections.emptyList())
+                    : teacherRepository.findAllByIds(teacherIds);
+
+            Map<Long, TeacherDto> teacherMap = await(teachersFuture).stream()
+                    .collect(Collectors.toMap(Teacher::getId, teacherMapper::toTeacherDto));
+            Map<Long, List<Student>> studentsByCourseId = await(studentsFuture);
+
+            return courses.stream()
+                    .map(course -> {
+                        CourseDto courseDto = courseMapper.toCourseDto(course);
+                        if (course.getTeacherId() != null) {
+                            courseDto.setTeacher(teacherMap.get(course.getTeacherId()));
+                        }
+                        courseDto.setStudents(studentMapper.toStudentDtoList(
+                                studentsByCourseId.getOrDefault(course.getId(), Collections.emptyList())));
+                        return courseDto;
+                    })
+                    .toList();
+        });
+    }
+
+    @Override
+    public Future<CourseDto> findById(Long id) {
+        log.info("*** in findById, id = {}", id);
+        return VirtualThreads.call(() -> {
+            // the students only depend on the id, so they are loaded together with the course
+            Future<Optional<Course>> courseFuture = courseRepository.findById(id);
+            Future<List<Student>> studentsFuture = studentRepository.findAllByCourseId(id);
+
+            Course course = await(courseFuture)
+                    .orElseThrow(() -> new EntityNotFoundException("Course with ID " + id + " not found"));
+            Long teacherId = course.getTeacherId();
+            Future<Optional<Teacher>> teacherFuture = teacherId == null
+                    ? Future.succeededFuture(Optional.empty())
+                    : teacherRepository.findById(teacherId);
+
+            CourseDto courseDto = courseMapper.toCourseDto(course);
+            courseDto.setStudents(studentMapper.toStudentDtoList(await(studentsFuture)));
+            if (teacherId != null) {
+                Teacher teacher = await(teacherFuture)
+                        .orElseThrow(() -> new EntityNotFoundException("Teacher with ID " + teacherId + " not found"));
+                courseDto.setTeacher(teacherMapper.toTeacherDto(teacher));
+            }
+            return courseDto;
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package ru.milko.student_vertx.service.impl;
+
+import io.vertx.core.Future;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.dto.CourseDto;
+import ru.milko.student_vertx.dto.StudentDto;
+import ru.milko.student_vertx.dto.TeacherDto;
+import ru.milko.student_vertx.exceptions.EntityNotFoundException;
+import ru.milko.student_vertx.mapper.CourseMapper;
+import ru.milko.student_vertx.mapper.StudentMapper;
+import ru.milko.student_vertx.mapper.TeacherMapper;
+import ru.milko.student_vertx.model.Course;
+import ru.milko.student_vertx.model.Student;
+import ru.milko.student_vertx.model.Teacher;
+import ru.milko.student_vertx.repository.CourseRepository;
+import ru.milko.student_vertx.repository.StudentRepository;
+import ru.milko.student_vertx.repository.TeacherRepository;
+import ru.milko.student_vertx.utils.VirtualThreads;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static io.vertx.core.Future.await;
+
+/**
+ * Independent queries are started before the first {@code await}.
+ */
+@Slf4j
+public class VirtualThreadStudentServiceImpl extends StudentServiceImpl {
+
+    public VirtualThreadStudentServiceImpl(StudentRepository studentRepository, CourseRepository courseRepository, TeacherRepository teacherRepository,
+                                           StudentMapper studentMapper, CourseMapper courseMapper, TeacherMapper teacherMapper) {
+        super(studentRepository, courseRepository, teacherRepository, studentMapper, courseMapper, teacherMapper);
+    }
+
+    @Override
+    public Future<List<StudentDto>> findAll() {
+        log.info("*** in findAll");
+        return VirtualThreads.call(() -> {
+            List<Student> students = await(studentRepository.findAll());
+            if (students.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<Long> studentIds = students.stream()
+                    .map(Student::getId)
+                    .toList();
+            Map<Long, List<Course>> coursesByStudentId = await(courseRepository.findAllByListOfStudentIds(studentIds));
+            Map<Long, TeacherDto> teacherMap = await(findTeachers(coursesByStudentId.values().stream()
+                    .flatMap(List::stream)
+                    .toList()));
+
+            return students.stream()
+                    .map(student -> toStudentDto(student, coursesByStudentId.getOrDefault(student.getId(), Collections.emptyList()), teacherMap))
+                    .toList();
+        });
+    }
+
+    @Override
+    public Future<StudentDto> findById(Long id) {
+        log.info("*** in findById, id = {}", id);
+        return VirtualThreads.call(() -> {
+            Future<Optional<Student>> studentFuture = studentRepository.findById(id);
+            Future<List<Course>> coursesFuture = courseRepository.findAllByStudentId(id);
+
+            List<Course> courses = await(coursesFuture);
+            Future<Map<Long, TeacherDto>> teachersFuture = findTeachers(courses);
+            Student student = await(studentFuture)
+                    .orElseThrow(() -> new EntityNotFoundException("Student with ID " + id + " not found"));
+
+            return toStudentDto(student, courses, await(teachersFuture));
+        });
+    }
+
+    @Override
+    public Future<List<CourseDto>> findAllCoursesByStudentId(Long id) {
+        log.info("*** in findAllCoursesByStudentId, StudentId = {}", id);
+        return VirtualThreads.call(() -> {
+            List<Course> courses = await(studentRepository.findAllCoursesByStudentId(id));
+            Map<Long, TeacherDto> teacherMap = await(findTeachers(courses));
+            return toCourseDtos(courses, teacherMap);
+        });
+    }
+
+    private Future<Map<Long, TeacherDto>> findTeachers(Collection<Course> courses) {
+        List<Long> teacherIds = courses.stream()
+                .map(Course::getTeacherId)
+                .distinct()
+                .toList();
+        if (teacherIds.isEmpty()) {
+            return Future.succeededFuture(Collections.emptyMap());
+        }
+        return teacherRepository.findAllByIds(teacherIds)
+                .map(teachers -> teachers.stream()
+                        .collect(Collectors.toMap(Teacher::getId, teacherMapper::toTeacherDto)));
+    }
+
+    private StudentDto toStudentDto(Student student, List<Course> courses, Map<Long, TeacherDto> teacherMap) {
+        StudentDto studentDto = studentMapper.toStudentDto(student);
+        studentDto.setCourses(toCourseDtos(courses, teacherMap));
+        return studentDto;
+    }
+
+    private List<CourseDto> toCourseDtos(List<Course> courses, Map<Long, TeacherDto> teacherMap) {
+        return courses.stream()
+                .map(course -> {
+                    CourseDto courseDto = courseMapper.toCourseDto(course);
+                    courseDto.setTeacher(teacherMap.get(course.getTeacherId()));
+                    return courseDto;
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,236 @@
+package ru.milko.student_vertx.utils;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.exceptions.OverloadedException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Concurrency limit with a wait queue, optionally adapted to latency with a gradient.
+ */
+@Slf4j
+public class AdaptiveLimiter {
+    public static final String METRICS_ADDRESS = "limiter.limit";
+
+    private static final double SHORT_SMOOTHING = 0.2;
+    private static final double LONG_SMOOTHING = 0.01;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final List<AdaptiveLimiter> instances = new CopyOnWriteArrayList<>();
+
+    private final Vertx vertx;
+    private final String name;
+    private final String prefix;
+    private final boolean adaptive;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long maxWaitMillis;
+    private final double tolerance;
+
+    private final Deque<Waiter> queue = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private double shortLatency;
+    private double longLatency;
+    private double waitMillis;
+    private long rejected;
+
+    public AdaptiveLimiter(Vertx vertx, String name, Config config, String prefix, int maxLimit) {
+        this.vertx = vertx;
+        this.name = name;
+        this.prefix = prefix;
+        this.adaptive = Boolean.parseBoolean(config.get(prefix + ".adaptive", "false"));
+        this.minLimit = Integer.parseInt(config.get(prefix + ".limit.min", "1"));
+        this.maxLimit = maxLimit;
+        this.maxQueue = Integer.parseInt(config.get(prefix + ".wait.queue.max", "100"));
+        this.maxWaitMillis = Long.parseLong(config.get(prefix + ".wait.max.ms", "1000"));
+        this.tolerance = Double.parseDouble(config.get(prefix + ".latency.tolerance", "1.5"));
+        if (minLimit <= 0 || minLimit > maxLimit) {
+            throw new IllegalStateException("Limit of " + name + " is invalid: " + prefix + ".limit.min must be between 1 and " + maxLimit + ".");
+        }
+        if (maxQueue < 0 || maxWaitMillis <= 0) {
+            throw new IllegalStateException("Wait queue of " + name + " is invalid: size must not be negative and max wait must be positive.");
+        }
+        this.limit = adaptive ? minLimit : maxLimit;
+        instances.add(this);
+    }
+
+    public static List<AdaptiveLimiter> instances() {
+        return instances;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String prefix() {
+        return prefix;
+    }
+
+    /**
+     * The caller must {@link #release} exactly once afterwards.
+     */
+    public Future<Void> acquire() {
+        Waiter waiter;
+        synchronized (this) {
+            if (inFlight < (int) limit && queue.isEmpty()) {
+                inFlight++;
+                return Future.succeededFuture();
+            }
+            if (queue.size() >= maxQueue) {
+                rejected++;
+                return Future.failedFuture(new OverloadedException(name + " is overloaded: wait queue is full"));
+            }
+            waiter = new Waiter(System.nanoTime(), Vertx.currentContext());
+            // armed before the waiter is visible to release(), which cancels it
+            waiter.timerId = vertx.setTimer(maxWaitMillis, id -> timeout(waiter));
+            queue.addLast(waiter);
+        }
+        return waiter.promise.future();
+    }
+
+    /**
+     * @param latencyNanos negative for failures, which are not sampled
+     */
+    public void release(long latencyNanos) {
+        Integer published = null;
+        List<Waiter> next;
+        synchronized (this) {
+            inFlight--;
+            if (latencyNanos >= 0) {
+                int before = (int) limit;
+                sample(latencyNanos);
+                if ((int) limit != before) {
+                    published = (int) limit;
+                }
+            }
+            next = pollNext();
+        }
+        for (Waiter waiter : next) {
+            vertx.cancelTimer(waiter.timerId);
+            waiter.complete(null);
+        }
+        if (published != null) {
+            publish(published);
+        }
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized int queueSize() {
+        return queue.size();
+    }
+
+    public synchronized double waitMillis() {
+        return waitMillis;
+    }
+
+    public synchronized long rejected() {
+        return rejected;
+    }
+
+    private void sample(long latencyNanos) {
+        double latency = latencyNanos / 1_000_000.0;
+        if (longLatency == 0) {
+            shortLatency = latency;
+            longLatency = latency;
+        } else {
+            shortLatency += SHORT_SMOOTHING * (latency - shortLatency);
+            longLatency += LONG_SMOOTHING * (latency - longLatency);
+        }
+        if (!adaptive) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatency / shortLatency));
+        // only grow when the limit is actually what holds callers back
+        double allowance = inFlight + 1 >= (int) limit || !queue.isEmpty() ? Math.sqrt(limit) : 0;
+        double target = limit * gradient + allowance;
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - LIMIT_SMOOTHING) + target * LIMIT_SMOOTHING));
+
+        // after an overload the long-term average is inflated; pull it down once latency has recovered
+        if (longLatency > 2 * shortLatency) {
+            longLatency *= 0.95;
+        }
+    }
+
+    private List<Waiter> pollNext() {
+        List<Waiter> next = new ArrayList<>(1);
+        while (inFlight < (int) limit && !queue.isEmpty()) {
+            Waiter waiter = queue.pollFirst();
+            inFlight++;
+            waitMillis += SHORT_SMOOTHING * ((System.nanoTime() - waiter.enqueuedAt) / 1_000_000.0 - waitMillis);
+            next.add(waiter);
+        }
+        return next;
+    }
+
+    private void timeout(Waiter waiter) {
+        synchronized (this) {
+            if (!queue.remove(waiter)) {
+                return;
+            }
+            rejected++;
+            waitMillis += SHORT_SMOOTHING * (maxWaitMillis - waitMillis);
+        }
+        waiter.complete(new OverloadedException(name + " is overloaded: no permit within " + maxWaitMillis + " ms"));
+    }
+
+    private void publish(int newLimit) {
+        JsonObject decision;
+        synchronized (this) {
+            decision = new JsonObject()
+                    .put("node", name)
+                    .put("limit", newLimit)
+                    .put("inFlight", inFlight)
+                    .put("queue", queue.size())
+                    .put("waitMs", waitMillis)
+                    .put("latencyMs", shortLatency)
+                    .put("baselineMs", longLatency)
+                    .put("rejected", rejected);
+        }
+        log.debug("*** {} concurrency limit changed: {}", name, decision);
+        vertx.eventBus().publish(METRICS_ADDRESS, decision);
+    }
+
+    private static class Waiter {
+        private final Promise<Void> promise = Promise.promise();
+        private final long enqueuedAt;
+        private final Context context;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private long timerId;
+
+        Waiter(long enqueuedAt, Context context) {
+            this.enqueuedAt = enqueuedAt;
+            this.context = context;
+        }
+
+        void complete(Throwable failure) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            if (context == null) {
+                promise.handle(failure == null ? Future.succeededFuture() : Future.failedFuture(failure));
+            } else {
+                context.runOnContext(v -> promise.handle(failure == null ? Future.succeededFuture() : Future.failedFuture(failure)));
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ru.milko.student_vertx.utils;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content codings the server can produce, in order of preference.
+ */
+public enum ContentEncoding {
+    BROTLI("br"),
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    public String token() {
+        return token;
+    }
+
+    public boolean isAvailable() {
+        return this != BROTLI || Brotli4jLoader.isAvailable();
+    }
+
+    /**
+     * @param level zlib level for gzip and deflate, quality for brotli
+     */
+    public byte[] compress(byte[] data, int level) throws IOException {
+        if (this == BROTLI) {
+            return Encoder.compress(data, new Encoder.Parameters().setQuality(level));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        if (this == GZIP) {
+            try (GZIPOutputStream stream = new LeveledGzipOutputStream(out, level)) {
+                stream.write(data);
+            }
+        } else {
+            Deflater deflater = new Deflater(level);
+            try (DeflaterOutputStream stream = new DeflaterOutputStream(out, deflater)) {
+                stream.write(data);
+            } finally {
+                deflater.end();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @return {@code null} if the response should not be compressed
+     */
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        ContentEncoding best = null;
+        double bestWeight = 0;
+        for (ContentEncoding encoding : values()) {
+            double weight = weight(acceptEncoding, encoding.token);
+            if (weight > bestWeight && encoding.isAvailable()) {
+                best = encoding;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    private static double weight(String acceptEncoding, String token) {
+        double wildcard = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String name = params[0].trim();
+            double weight = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        weight = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        weight = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase(token)) {
+                return weight;
+            }
+            if (name.equals("*")) {
+                wildcard = weight;
+            }
+        }
+        return wildcard;
+    }
+
+    private static class LeveledGzipOutputStream extends GZIPOutputStream {
+        LeveledGzipOutputStream(ByteArrayOutputStream out, int level) throws IOException {
+            super(out);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package ru.milko.student_vertx.utils;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Context;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import ru.milko.student_vertx.config.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event-loop lag from probe tasks submitted by a thread of its own, so a blocked loop still shows.
+ */
+public class EventLoopMonitor {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final Vertx vertx;
+    private final List<Probe> probes = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "event-loop-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Future<Void> started;
+    private volatile String deploymentId;
+    private volatile boolean closed;
+
+    public EventLoopMonitor(Vertx vertx, Config config) {
+        this.vertx = vertx;
+        // instances are spread round-robin over the loops, which gives one probe context per loop
+        started = vertx.deployVerticle(ProbeVerticle::new, new DeploymentOptions().setInstances(VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE))
+                .map(id -> {
+                    deploymentId = id;
+                    if (closed) {
+                        vertx.undeploy(id);
+                    }
+                    return null;
+                });
+        long interval = Long.parseLong(config.get("health.eventloop.probe.interval.ms", "100"));
+        scheduler.scheduleAtFixedRate(() -> probes.forEach(Probe::submit), interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Completes once every loop has a probe.
+     */
+    public Future<Void> started() {
+        return started;
+    }
+
+    public long maxLagMillis() {
+        long now = System.nanoTime();
+        long max = 0;
+        for (Probe probe : probes) {
+            max = Math.max(max, probe.lagNanos(now));
+        }
+        return max / 1_000_000;
+    }
+
+    public int loops() {
+        return probes.size();
+    }
+
+    public long busyNanos(int loop) {
+        return Math.max(0, THREADS.getThreadCpuTime(probes.get(loop).threadId));
+    }
+
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        String id = deploymentId;
+        if (id != null && vertx.deploymentIDs().contains(id)) {
+            vertx.undeploy(id);
+        }
+    }
+
+    private synchronized void register(Context context, long threadId) {
+        for (Probe probe : probes) {
+            if (probe.threadId == threadId) {
+                return;
+            }
+        }
+        probes.add(new Probe(context, threadId));
+    }
+
+    private class ProbeVerticle extends AbstractVerticle {
+        @Override
+        public void start() {
+            register(context, Thread.currentThread().threadId());
+        }
+    }
+
+    private static class Probe {
+        private final Context context;
+        private final long threadId;
+        private volatile long submittedAt;
+        private volatile boolean pending;
+        private volatile long lastLagNanos;
+
+        Probe(Context context, long threadId) {
+            this.context = context;
+            this.threadId = threadId;
+        }
+
+        void submit() {
+            if (pending) {
+                return;
+            }
+            long start = System.nanoTime();
+            submittedAt = start;
+            pending = true;
+            context.runOnContext(v -> {
+                lastLagNanos = System.nanoTime() - start;
+                pending = false;
+            });
+        }
+
+        long lagNanos(long now) {
+            return pending ? Math.max(lastLagNanos, now - submittedAt) : lastLagNanos;
+        }
+    }
+}
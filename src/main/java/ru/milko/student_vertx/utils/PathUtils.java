@@ -1,8 +1,12 @@
 package ru.milko.student_vertx.utils;
 
 public class PathUtils {
+    public static final String API_PATH = "/api/*";
     public static final String STUDENTS_PATH = "/api/v1/students";
     public static final String COURSES_PATH = "/api/v1/courses";
     public static final String DEPARTMENTS_PATH = "/api/v1/departments";
     public static final String TEACHERS_PATH = "/api/v1/teachers";
+    public static final String HEALTH_LIVE_PATH = "/health/live";
+    public static final String HEALTH_READY_PATH = "/health/ready";
+    public static final String METRICS_PATH = "/metrics";
 }
@@ -0,0 +1,106 @@
+package ru.milko.student_vertx.utils;
+
+import io.vertx.core.buffer.Buffer;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.config.Config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compresses response bodies per {@code Accept-Encoding}, keeping the last GET bodies precompressed.
+ */
+@Slf4j
+public final class ResponseCompression {
+    private static final LongAdder bypassed = new LongAdder();
+    private static final LongAdder compressed = new LongAdder();
+    private static final LongAdder storeHits = new LongAdder();
+
+    private static boolean enabled;
+    private static int threshold;
+    private static int level;
+    private static int brotliQuality;
+    private static Map<String, Stored> store = Map.of();
+
+    private ResponseCompression() {
+    }
+
+    public static void configure(Config config) {
+        enabled = Boolean.parseBoolean(config.get("http.compression.enabled", "false"));
+        threshold = Integer.parseInt(config.get("http.compression.threshold.bytes", "1024"));
+        level = Integer.parseInt(config.get("http.compression.level", "6"));
+        brotliQuality = Integer.parseInt(config.get("http.compression.brotli.quality", "4"));
+        int storeSize = Integer.parseInt(config.get("http.compression.store.size", "64"));
+        store = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Stored> eldest) {
+                return size() > storeSize;
+            }
+        };
+        if (enabled) {
+            log.info("*** compressing responses of {} bytes or more, brotli {}", threshold,
+                    ContentEncoding.BROTLI.isAvailable() ? "available" : "unavailable");
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param storeKey {@code null} if the body should not be stored
+     */
+    public static Encoded encode(String storeKey, String acceptEncoding, String body) throws IOException {
+        byte[] data = body.getBytes(StandardCharsets.UTF_8);
+        ContentEncoding encoding = enabled && data.length >= threshold ? ContentEncoding.negotiate(acceptEncoding) : null;
+        if (encoding == null) {
+            bypassed.increment();
+            return new Encoded(Buffer.buffer(data), null);
+        }
+        if (storeKey == null) {
+            return new Encoded(compress(data, encoding), encoding);
+        }
+
+        String key = encoding.token() + " " + storeKey;
+        Stored stored;
+        synchronized (store) {
+            stored = store.get(key);
+        }
+        if (stored != null && Arrays.equals(stored.source(), data)) {
+            storeHits.increment();
+            return new Encoded(stored.compressed(), encoding);
+        }
+        Buffer result = compress(data, encoding);
+        synchronized (store) {
+            store.put(key, new Stored(data, result));
+        }
+        return new Encoded(result, encoding);
+    }
+
+    public static long bypassed() {
+        return bypassed.sum();
+    }
+
+    public static long compressed() {
+        return compressed.sum();
+    }
+
+    public static long storeHits() {
+        return storeHits.sum();
+    }
+
+    private static Buffer compress(byte[] data, ContentEncoding encoding) throws IOException {
+        compressed.increment();
+        return Buffer.buffer(encoding.compress(data, encoding == ContentEncoding.BROTLI ? brotliQuality : level));
+    }
+
+    public record Encoded(Buffer body, ContentEncoding encoding) {
+    }
+
+    private record Stored(byte[] source, Buffer compressed) {
+    }
+}
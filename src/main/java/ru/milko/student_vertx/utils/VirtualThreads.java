@@ -0,0 +1,21 @@
+package ru.milko.student_vertx.utils;
+
+import io.vertx.core.Future;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Must be called on a virtual-thread context.
+ */
+public final class VirtualThreads {
+    private VirtualThreads() {
+    }
+
+    public static <T> Future<T> call(Callable<T> body) {
+        try {
+            return Future.succeededFuture(body.call());
+        } catch (Exception e) {
+            return Future.failedFuture(e);
+        }
+    }
+}
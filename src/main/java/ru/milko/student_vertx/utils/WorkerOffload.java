@@ -0,0 +1,69 @@
+package ru.milko.student_vertx.utils;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import lombok.extern.slf4j.Slf4j;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.database.LatencyHistogram;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Runs work on at least {@code worker.offload.threshold} items on a worker pool instead of the event loop.
+ */
+@Slf4j
+public final class WorkerOffload {
+    private static final LatencyHistogram inline = new LatencyHistogram(10_000);
+    private static final LatencyHistogram offloaded = new LatencyHistogram(10_000);
+
+    private static WorkerExecutor executor;
+    private static int threshold = Integer.MAX_VALUE;
+
+    private WorkerOffload() {
+    }
+
+    public static void configure(Vertx vertx, Config config) {
+        threshold = Integer.parseInt(config.get("worker.offload.threshold", "1000"));
+        int poolSize = Integer.parseInt(config.get("worker.offload.pool.size", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        if (threshold <= 0 || poolSize <= 0) {
+            throw new IllegalStateException("Worker offload threshold and pool size must be positive.");
+        }
+        executor = vertx.createSharedWorkerExecutor("offload-worker", poolSize);
+        log.info("*** offloading work on {} or more items to {} worker threads", threshold, poolSize);
+    }
+
+    public static <T> Future<T> run(int size, Callable<T> work) {
+        if (executor == null || size < threshold || !Context.isOnEventLoopThread()) {
+            return timed(inline, work);
+        }
+        return executor.executeBlocking(() -> {
+            long start = System.nanoTime();
+            try {
+                return work.call();
+            } finally {
+                offloaded.record(System.nanoTime() - start);
+            }
+        }, false);
+    }
+
+    public static LatencyHistogram inline() {
+        return inline;
+    }
+
+    public static LatencyHistogram offloaded() {
+        return offloaded;
+    }
+
+    private static <T> Future<T> timed(LatencyHistogram histogram, Callable<T> work) {
+        long start = System.nanoTime();
+        try {
+            return Future.succeededFuture(work.call());
+        } catch (Exception e) {
+            return Future.failedFuture(e);
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+}
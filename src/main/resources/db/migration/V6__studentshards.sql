@@ -0,0 +1,6 @@
+ALTER SEQUENCE students_id_seq INCREMENT BY ${shardCount};
+
+SELECT setval('students_id_seq',
+              (SELECT COALESCE(MAX(id), 0) + 1 + ((${shardIndex} - COALESCE(MAX(id), 0) - 1) % ${shardCount} + ${shardCount}) % ${shardCount}
+               FROM students),
+              false);
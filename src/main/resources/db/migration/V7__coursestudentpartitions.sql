@@ -0,0 +1,30 @@
+CREATE TABLE course_student_partitioned
+(
+    course_id  BIGINT NOT NULL REFERENCES courses (id) ON DELETE CASCADE,
+    student_id BIGINT NOT NULL REFERENCES students (id) ON DELETE CASCADE,
+    PRIMARY KEY (student_id, course_id)
+) PARTITION BY HASH (student_id);
+
+DO
+$$
+    BEGIN
+        FOR remainder IN 0..15
+            LOOP
+                EXECUTE format('CREATE TABLE course_student_p%s PARTITION OF course_student_partitioned '
+                                   'FOR VALUES WITH (MODULUS 16, REMAINDER %s)', remainder, remainder);
+            END LOOP;
+    END
+$$;
+
+CREATE INDEX course_student_course_id_idx ON course_student_partitioned (course_id);
+
+INSERT INTO course_student_partitioned (course_id, student_id)
+SELECT course_id, student_id
+FROM course_student
+WHERE course_id IS NOT NULL
+  AND student_id IS NOT NULL;
+
+DROP TABLE course_student;
+
+ALTER TABLE course_student_partitioned
+    RENAME TO course_student;
@@ -0,0 +1,5 @@
+CREATE TABLE student_name_claims
+(
+    name       TEXT PRIMARY KEY,
+    claimed_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
\ No newline at end of file
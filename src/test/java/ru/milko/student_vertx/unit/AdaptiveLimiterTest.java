@@ -0,0 +1,197 @@
+package ru.milko.student_vertx.unit;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.ContextInternal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.context.RequestScope;
+import ru.milko.student_vertx.exceptions.OverloadedException;
+import ru.milko.student_vertx.utils.AdaptiveLimiter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class AdaptiveLimiterTest {
+    private Vertx vertx;
+    private final Map<String, String> properties = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void tearDown() {
+        vertx.close();
+    }
+
+    @Test
+    void staticLimitShouldQueueAndHandOverPermits() {
+        properties.put("database.pool.wait.queue.max", "1");
+        AdaptiveLimiter limiter = limiter(2);
+
+        assertTrue(limiter.acquire().succeeded());
+        assertTrue(limiter.acquire().succeeded());
+        Future<Void> queued = limiter.acquire();
+        Future<Void> rejected = limiter.acquire();
+
+        assertFalse(queued.isComplete());
+        assertInstanceOf(OverloadedException.class, rejected.cause());
+
+        limiter.release(1_000_000);
+
+        assertTrue(queued.succeeded());
+        assertEquals(2, limiter.inFlight());
+        assertEquals(1, limiter.rejected());
+    }
+
+    @Test
+    void queuedCallerShouldResumeOnItsOwnContext() throws Exception {
+        AdaptiveLimiter limiter = limiter(1);
+        // every HTTP request runs on its own duplicate of the event-loop context
+        ContextInternal eventLoop = (ContextInternal) vertx.getOrCreateContext();
+        Context first = eventLoop.duplicate();
+        Context second = eventLoop.duplicate();
+        CompletableFuture<RequestScope> firstScope = new CompletableFuture<>();
+        CompletableFuture<Boolean> secondSawOwnScope = new CompletableFuture<>();
+
+        first.runOnContext(v -> {
+            RequestScope scope = RequestScope.open();
+            limiter.acquire().onSuccess(permit -> firstScope.complete(scope));
+        });
+        firstScope.get(5, TimeUnit.SECONDS);
+        second.runOnContext(v -> {
+            RequestScope scope = RequestScope.open();
+            limiter.acquire().onComplete(ar -> secondSawOwnScope.complete(ar.succeeded() && RequestScope.current() == scope));
+        });
+        while (limiter.queueSize() == 0) {
+            Thread.sleep(1);
+        }
+        first.runOnContext(v -> limiter.release(1_000_000));
+
+        assertTrue(secondSawOwnScope.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void releaseRacingAcquireShouldCancelTheTimerOfEveryHandedOverWaiter() throws Exception {
+        Set<Long> armed = ConcurrentHashMap.newKeySet();
+        Set<Long> cancelled = ConcurrentHashMap.newKeySet();
+        AtomicLong ids = new AtomicLong();
+        Vertx timers = mock(Vertx.class);
+        when(timers.setTimer(anyLong(), any())).thenAnswer(invocation -> {
+            long id = ids.incrementAndGet();
+            armed.add(id);
+            // widen the window between arming the timer and handing its id back
+            LockSupport.parkNanos(100_000);
+            return id;
+        });
+        when(timers.cancelTimer(anyLong())).thenAnswer(invocation -> cancelled.add(invocation.getArgument(0)));
+        AdaptiveLimiter limiter = new AdaptiveLimiter(timers, "primary", config(), "database.pool", 1);
+
+        Runnable caller = () -> {
+            for (int i = 0; i < 500; i++) {
+                Future<Void> permit = limiter.acquire();
+                while (!permit.isComplete()) {
+                    Thread.onSpinWait();
+                }
+                assertTrue(permit.succeeded());
+                LockSupport.parkNanos(50_000);
+                limiter.release(1_000_000);
+            }
+        };
+        Thread first = new Thread(caller);
+        Thread second = new Thread(caller);
+        first.start();
+        second.start();
+        first.join(30_000);
+        second.join(30_000);
+
+        assertFalse(armed.isEmpty());
+        assertEquals(armed, cancelled);
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void zeroQueueShouldRejectImmediately() {
+        properties.put("http.admission.wait.queue.max", "0");
+        Config config = config();
+        AdaptiveLimiter limiter = new AdaptiveLimiter(vertx, "http", config, "http.admission", 1);
+
+        assertTrue(limiter.acquire().succeeded());
+        Future<Void> rejected = limiter.acquire();
+
+        assertTrue(rejected.failed());
+        assertInstanceOf(OverloadedException.class, rejected.cause());
+        assertEquals(0, limiter.queueSize());
+    }
+
+    @Test
+    void waiterShouldFailAfterMaxWait() {
+        properties.put("database.pool.wait.max.ms", "20");
+        AdaptiveLimiter limiter = limiter(1);
+        limiter.acquire();
+
+        Future<Void> queued = limiter.acquire();
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> queued.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(OverloadedException.class, failure.getCause());
+        assertEquals(0, limiter.queueSize());
+    }
+
+    @Test
+    void adaptiveLimitShouldGrowWhileSaturatedAndShrinkWhenLatencyRises() {
+        properties.put("database.pool.adaptive", "true");
+        AdaptiveLimiter limiter = limiter(20);
+        assertEquals(1, limiter.limit());
+
+        for (int i = 0; i < 200; i++) {
+            saturateAndRelease(limiter, 1_000_000);
+        }
+        int grown = limiter.limit();
+        assertTrue(grown > 10, "limit was " + grown);
+
+        for (int i = 0; i < 10; i++) {
+            saturateAndRelease(limiter, 20_000_000);
+        }
+        assertTrue(limiter.limit() < grown, "limit was " + limiter.limit());
+    }
+
+    private static void saturateAndRelease(AdaptiveLimiter limiter, long latencyNanos) {
+        int permits = limiter.limit();
+        for (int i = 0; i < permits; i++) {
+            limiter.acquire();
+        }
+        for (int i = 0; i < permits; i++) {
+            limiter.release(latencyNanos);
+        }
+    }
+
+    private AdaptiveLimiter limiter(int maxSize) {
+        return new AdaptiveLimiter(vertx, "primary", config(), "database.pool", maxSize);
+    }
+
+    private Config config() {
+        Config config = mock(Config.class);
+        when(config.get(anyString(), anyString()))
+                .thenAnswer(invocation -> properties.getOrDefault(invocation.getArgument(0), invocation.getArgument(1)));
+        return config;
+    }
+}
@@ -0,0 +1,47 @@
+package ru.milko.student_vertx.unit;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.context.CancellationStats;
+import ru.milko.student_vertx.rest.BasicController;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class BasicControllerTest {
+    private final TestController controller = new TestController();
+
+    @Test
+    void successAfterTheDeadlineAnsweredShouldBeSkipped() {
+        RoutingContext context = mock(RoutingContext.class);
+        HttpServerResponse response = mock(HttpServerResponse.class);
+        when(context.response()).thenReturn(response);
+        // keep-alive: the connection stays open after the 504 has ended the response
+        when(response.closed()).thenReturn(false);
+        when(response.ended()).thenReturn(true);
+        long skipped = CancellationStats.skippedResponses();
+
+        controller.respond(context, List.of("late"));
+
+        assertEquals(skipped + 1, CancellationStats.skippedResponses());
+        verify(response, never()).setStatusCode(anyInt());
+        verify(response, never()).end(any(Buffer.class));
+    }
+
+    private static class TestController extends BasicController {
+        @Override
+        public void registerRoutes(Router router) {
+        }
+
+        void respond(RoutingContext context, Object body) {
+            respondSuccess(context, 200, body);
+        }
+    }
+}
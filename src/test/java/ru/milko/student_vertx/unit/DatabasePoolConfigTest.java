@@ -0,0 +1,105 @@
+package ru.milko.student_vertx.unit;
+
+import io.vertx.core.Vertx;
+import io.vertx.pgclient.PgConnectOptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.config.DatabasePoolConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class DatabasePoolConfigTest {
+    private final Map<String, String> properties = new HashMap<>();
+
+    @Test
+    void poolBudgetShouldBeSplitBetweenProcesses() {
+        properties.put("database.pool.maxsize", "20");
+        properties.put("process.count", "4");
+
+        assertEquals(5, DatabasePoolConfig.poolShare(config(), "database.pool.maxsize", null));
+    }
+
+    @Test
+    void poolBudgetShouldAlsoBeSplitBetweenServiceVerticles() {
+        properties.put("database.pool.maxsize", "20");
+        properties.put("process.count", "2");
+        properties.put("service.transport", "event-bus");
+        properties.put("service.verticle.instances", "4");
+
+        assertEquals(2, DatabasePoolConfig.poolShare(config(), "database.pool.maxsize", null));
+    }
+
+    @Test
+    void everyProcessShouldKeepAtLeastOneConnectionAndDisabledLanesStayDisabled() {
+        properties.put("database.pool.maxsize", "3");
+        properties.put("process.count", "8");
+
+        assertEquals(1, DatabasePoolConfig.poolShare(config(), "database.pool.maxsize", null));
+        assertEquals(0, DatabasePoolConfig.poolShare(config(), "database.lane.bulk.pool.maxsize", "0"));
+    }
+
+    @Test
+    void primaryShouldUseUnixSocketWhenItExists(@TempDir Path socketDirectory) throws Exception {
+        databaseProperties(socketDirectory);
+        Files.createFile(socketDirectory.resolve(".s.PGSQL.5432"));
+
+        PgConnectOptions options = DatabasePoolConfig.primaryConnectOptions(vertx(true), config());
+
+        assertTrue(options.isUsingDomainSocket());
+        assertEquals(socketDirectory.toString(), options.getHost());
+    }
+
+    @Test
+    void primaryShouldFallBackToTcpWithoutSocketOrNativeTransport(@TempDir Path socketDirectory) throws Exception {
+        databaseProperties(socketDirectory);
+
+        assertEquals("localhost", DatabasePoolConfig.primaryConnectOptions(vertx(true), config()).getHost());
+        Files.createFile(socketDirectory.resolve(".s.PGSQL.5432"));
+        assertEquals("localhost", DatabasePoolConfig.primaryConnectOptions(vertx(false), config()).getHost());
+    }
+
+    @Test
+    void pgBouncerModeShouldLeaveNoStateOnServerConnections(@TempDir Path socketDirectory) {
+        databaseProperties(socketDirectory);
+        properties.put("database.pgbouncer.mode", "true");
+
+        PgConnectOptions options = DatabasePoolConfig.primaryConnectOptions(vertx(false), config());
+
+        assertTrue(options.getUseLayer7Proxy());
+        assertFalse(options.getCachePreparedStatements());
+        assertEquals(1, options.getPipeliningLimit());
+        assertFalse(options.getProperties().containsKey("extra_float_digits"));
+    }
+
+    private void databaseProperties(Path socketDirectory) {
+        properties.put("database.host", "localhost");
+        properties.put("database.port", "5432");
+        properties.put("database.name", "mydb");
+        properties.put("database.username", "postgres");
+        properties.put("database.password", "password");
+        properties.put("database.pool.maxsize", "5");
+        properties.put("database.socket.dir", socketDirectory.toString());
+    }
+
+    private static Vertx vertx(boolean nativeTransport) {
+        Vertx vertx = mock(Vertx.class);
+        when(vertx.isNativeTransportEnabled()).thenReturn(nativeTransport);
+        return vertx;
+    }
+
+    private Config config() {
+        Config config = mock(Config.class);
+        when(config.get(anyString())).thenAnswer(invocation -> properties.get(invocation.getArgument(0)));
+        when(config.get(anyString(), any())).thenAnswer(invocation -> properties.getOrDefault(invocation.getArgument(0), invocation.getArgument(1)));
+        return config;
+    }
+}
@@ -0,0 +1,83 @@
+package ru.milko.student_vertx.unit;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.cache.CachedEntity;
+import ru.milko.student_vertx.cache.CachingStudentService;
+import ru.milko.student_vertx.cache.EntityCache;
+import ru.milko.student_vertx.cache.EntityCaches;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.dto.StudentDto;
+import ru.milko.student_vertx.service.StudentService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class EntityCacheTest {
+    private Vertx vertx;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void tearDown() {
+        vertx.close();
+    }
+
+    @Test
+    void loadRacingWithEvictionShouldNotBeCached() {
+        EntityCache<String> cache = new EntityCache<>(10, 60_000);
+        long generation = cache.generation();
+
+        cache.evict(1L);
+        cache.put(1L, "stale", generation);
+
+        assertNull(cache.get(1L));
+        cache.put(1L, "fresh", cache.generation());
+        assertEquals("fresh", cache.get(1L));
+    }
+
+    @Test
+    void cacheShouldDropLeastRecentlyUsedEntry() {
+        EntityCache<String> cache = new EntityCache<>(2, 60_000);
+        cache.put(1L, "one", 0);
+        cache.put(2L, "two", 0);
+        cache.get(1L);
+
+        cache.put(3L, "three", 0);
+
+        assertEquals("one", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void writeShouldEvictEntityAndDtosEmbeddingIt() {
+        Config config = mock(Config.class);
+        when(config.get(anyString(), anyString())).thenAnswer(invocation -> invocation.getArgument(1));
+        EntityCaches caches = new EntityCaches(vertx, config);
+        StudentService delegate = mock(StudentService.class);
+        StudentDto student = StudentDto.builder().id(1L).name("John Doe").build();
+        when(delegate.findById(1L)).thenReturn(Future.succeededFuture(student));
+        when(delegate.update(any())).thenReturn(Future.succeededFuture(student));
+        StudentService service = new CachingStudentService(delegate, caches);
+        caches.<Object>cache(CachedEntity.COURSE).put(5L, "course embedding the student", 0);
+
+        service.findById(1L);
+        service.findById(1L);
+        verify(delegate, times(1)).findById(1L);
+
+        service.update(student);
+        service.findById(1L);
+
+        verify(delegate, times(2)).findById(1L);
+        assertNull(caches.cache(CachedEntity.COURSE).get(5L));
+    }
+}
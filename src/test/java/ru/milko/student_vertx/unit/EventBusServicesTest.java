@@ -0,0 +1,106 @@
+package ru.milko.student_vertx.unit;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.ContextInternal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.context.CancelReason;
+import ru.milko.student_vertx.context.RequestScope;
+import ru.milko.student_vertx.database.QueryHandle;
+import ru.milko.student_vertx.dto.StudentDto;
+import ru.milko.student_vertx.eventbus.EventBusServices;
+import ru.milko.student_vertx.exceptions.EntityNotFoundException;
+import ru.milko.student_vertx.service.CourseService;
+import ru.milko.student_vertx.service.DepartmentService;
+import ru.milko.student_vertx.service.Services;
+import ru.milko.student_vertx.service.StudentService;
+import ru.milko.student_vertx.service.TeacherService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class EventBusServicesTest {
+    private Vertx vertx;
+    private StudentService studentService;
+    private Services proxies;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+        studentService = mock(StudentService.class);
+        EventBusServices.registerCodec(vertx);
+        EventBusServices.register(vertx, new Services(studentService, mock(CourseService.class),
+                mock(TeacherService.class), mock(DepartmentService.class)));
+
+        Config config = mock(Config.class);
+        when(config.get(anyString(), anyString())).thenAnswer(invocation -> invocation.getArgument(1));
+        proxies = EventBusServices.proxies(vertx, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        vertx.close();
+    }
+
+    @Test
+    void callShouldPassArgumentsAndResultByReference() throws Exception {
+        StudentDto created = StudentDto.builder().id(1L).name("John Doe").build();
+        List<StudentDto> all = List.of(created);
+        when(studentService.create(created)).thenReturn(Future.succeededFuture(created));
+        when(studentService.findAll()).thenReturn(Future.succeededFuture(all));
+
+        assertSame(created, await(proxies.student().create(created)));
+        assertSame(all, await(proxies.student().findAll()));
+    }
+
+    @Test
+    void failureShouldKeepItsType() {
+        when(studentService.findById(7L)).thenReturn(Future.failedFuture(new EntityNotFoundException("Student with ID 7 not found")));
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> await(proxies.student().findById(7L)));
+
+        assertInstanceOf(EntityNotFoundException.class, failure.getCause());
+        assertEquals("Student with ID 7 not found", failure.getCause().getMessage());
+    }
+
+    @Test
+    void cancellingTheRequestShouldCancelTheServiceScope() throws Exception {
+        CompletableFuture<QueryHandle> tracked = new CompletableFuture<>();
+        when(studentService.findById(7L)).thenAnswer(invocation -> {
+            tracked.complete(RequestScope.current().trackQuery());
+            return Promise.promise().future();
+        });
+        Context context = ((ContextInternal) vertx.getOrCreateContext()).duplicate();
+        CompletableFuture<RequestScope> opened = new CompletableFuture<>();
+
+        context.runOnContext(v -> {
+            RequestScope scope = RequestScope.open();
+            proxies.student().findById(7L);
+            opened.complete(scope);
+        });
+        RequestScope scope = opened.get(5, TimeUnit.SECONDS);
+        QueryHandle handle = tracked.get(5, TimeUnit.SECONDS);
+        context.runOnContext(v -> scope.cancel(CancelReason.CLIENT_DISCONNECTED));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!handle.isCancelled() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(handle.isCancelled());
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.milko.student_vertx.unit;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.utils.EventLoopMonitor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class EventLoopMonitorTest {
+    private Vertx vertx;
+    private EventLoopMonitor monitor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        vertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(2));
+        Config config = mock(Config.class);
+        when(config.get(anyString(), anyString())).thenAnswer(invocation -> "health.eventloop.probe.interval.ms".equals(invocation.getArgument(0))
+                ? "10"
+                : invocation.getArgument(1));
+        monitor = new EventLoopMonitor(vertx, config);
+        monitor.started().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.close();
+        vertx.close();
+    }
+
+    @Test
+    void blockedEventLoopShouldShowUpWhileItIsStillBlocked() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        vertx.nettyEventLoopGroup().forEach(loop -> loop.execute(() -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        Thread.sleep(300);
+        long lagWhileBlocked = monitor.maxLagMillis();
+        release.countDown();
+
+        assertTrue(lagWhileBlocked >= 200, "lag was " + lagWhileBlocked + " ms");
+    }
+
+    @Test
+    void closeShouldUndeployTheProbes() throws Exception {
+        assertEquals(2, monitor.loops());
+        assertFalse(vertx.deploymentIDs().isEmpty());
+
+        monitor.close();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!vertx.deploymentIDs().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(vertx.deploymentIDs().isEmpty());
+    }
+}
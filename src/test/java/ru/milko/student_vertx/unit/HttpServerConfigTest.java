@@ -0,0 +1,52 @@
+package ru.milko.student_vertx.unit;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServerOptions;
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.config.HttpServerConfig;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class HttpServerConfigTest {
+
+    @Test
+    void tunedProfileShouldApplySocketOptions() {
+        Vertx vertx = mock(Vertx.class);
+        when(vertx.isNativeTransportEnabled()).thenReturn(true);
+
+        HttpServerOptions options = HttpServerConfig.createOptions(vertx, config(Map.of(
+                "transport.profile", "tuned", "http.idle.timeout.s", "30")));
+
+        assertTrue(options.isTcpNoDelay());
+        assertTrue(options.isTcpFastOpen());
+        assertTrue(options.isTcpQuickAck());
+        assertTrue(options.isTcpKeepAlive());
+        assertEquals(4096, options.getAcceptBacklog());
+        assertEquals(30, options.getIdleTimeout());
+    }
+
+    @Test
+    void nativeOnlyOptionsShouldBeSkippedWithoutNativeTransport() {
+        Vertx vertx = mock(Vertx.class);
+        when(vertx.isNativeTransportEnabled()).thenReturn(false);
+
+        HttpServerOptions options = HttpServerConfig.createOptions(vertx, config(Map.of("transport.profile", "tuned")));
+
+        assertFalse(options.isTcpFastOpen());
+        assertFalse(options.isTcpQuickAck());
+        assertThrows(IllegalStateException.class,
+                () -> HttpServerConfig.createOptions(vertx, config(Map.of("transport.profile", "fast"))));
+    }
+
+    private static Config config(Map<String, String> properties) {
+        Config config = mock(Config.class);
+        when(config.get(anyString(), anyString()))
+                .thenAnswer(invocation -> properties.getOrDefault(invocation.getArgument(0), invocation.getArgument(1)));
+        return config;
+    }
+}
@@ -0,0 +1,160 @@
+package ru.milko.student_vertx.unit;
+
+import io.vertx.core.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.exceptions.ConstraintViolationException;
+import ru.milko.student_vertx.exceptions.DuplicateFieldException;
+import ru.milko.student_vertx.exceptions.EntityNotFoundException;
+import ru.milko.student_vertx.model.Course;
+import ru.milko.student_vertx.model.Department;
+import ru.milko.student_vertx.model.Student;
+import ru.milko.student_vertx.model.Teacher;
+import ru.milko.student_vertx.repository.inmemory.InMemoryCourseRepository;
+import ru.milko.student_vertx.repository.inmemory.InMemoryDepartmentRepository;
+import ru.milko.student_vertx.repository.inmemory.InMemoryStore;
+import ru.milko.student_vertx.repository.inmemory.InMemoryStudentRepository;
+import ru.milko.student_vertx.repository.inmemory.InMemoryTeacherRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryRepositoryTest {
+    private InMemoryStudentRepository studentRepository;
+    private InMemoryCourseRepository courseRepository;
+    private InMemoryTeacherRepository teacherRepository;
+    private InMemoryDepartmentRepository departmentRepository;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryStore store = new InMemoryStore();
+        studentRepository = new InMemoryStudentRepository(store);
+        courseRepository = new InMemoryCourseRepository(store);
+        teacherRepository = new InMemoryTeacherRepository(store);
+        departmentRepository = new InMemoryDepartmentRepository(store);
+    }
+
+    @Test
+    void saveShouldAssignSequentialIds() {
+        Student first = studentRepository.save(student("John")).result();
+        Student second = studentRepository.save(student("Jane")).result();
+
+        assertEquals(1L, first.getId());
+        assertEquals(2L, second.getId());
+        assertEquals(List.of(1L, 2L), studentRepository.findAll().result().stream().map(Student::getId).toList());
+    }
+
+    @Test
+    void saveShouldRejectDuplicateStudentName() {
+        studentRepository.save(student("John"));
+
+        Future<Student> result = studentRepository.save(student("John"));
+
+        assertTrue(result.failed());
+        assertInstanceOf(DuplicateFieldException.class, result.cause());
+    }
+
+    @Test
+    void updateShouldRejectDuplicateCourseTitleAndKeepIndex() {
+        courseRepository.save(course("Math"));
+        Course physics = courseRepository.save(course("Physics")).result();
+
+        Future<Course> result = courseRepository.update(Course.builder().id(physics.getId()).title("Math").build());
+
+        assertTrue(result.failed());
+        assertInstanceOf(DuplicateFieldException.class, result.cause());
+        assertTrue(courseRepository.save(course("Physics")).failed());
+    }
+
+    @Test
+    void updateShouldFailForMissingEntity() {
+        Future<Teacher> result = teacherRepository.update(Teacher.builder().id(42L).name("Nobody").build());
+
+        assertTrue(result.failed());
+        assertInstanceOf(EntityNotFoundException.class, result.cause());
+    }
+
+    @Test
+    void addCourseToStudentShouldMaintainBothDirections() {
+        Student student = studentRepository.save(student("John")).result();
+        Course math = courseRepository.save(course("Math")).result();
+        Course physics = courseRepository.save(course("Physics")).result();
+
+        studentRepository.addCourseToStudent(student.getId(), math.getId());
+        studentRepository.addCourseToStudent(student.getId(), physics.getId());
+
+        assertEquals(2, courseRepository.findAllByStudentId(student.getId()).result().size());
+        Map<Long, List<Student>> studentsByCourseId = studentRepository.findAllStudentsByCourseIds(List.of(math.getId(), physics.getId())).result();
+        assertEquals(student.getId(), studentsByCourseId.get(math.getId()).get(0).getId());
+        assertEquals(student.getId(), studentsByCourseId.get(physics.getId()).get(0).getId());
+    }
+
+    @Test
+    void addCourseToStudentShouldEnforceForeignKeysAndUniqueness() {
+        Student student = studentRepository.save(student("John")).result();
+        Course math = courseRepository.save(course("Math")).result();
+
+        assertInstanceOf(ConstraintViolationException.class, studentRepository.addCourseToStudent(student.getId(), 99L).cause());
+        assertInstanceOf(ConstraintViolationException.class, studentRepository.addCourseToStudent(99L, math.getId()).cause());
+
+        studentRepository.addCourseToStudent(student.getId(), math.getId());
+        assertInstanceOf(DuplicateFieldException.class, studentRepository.addCourseToStudent(student.getId(), math.getId()).cause());
+    }
+
+    @Test
+    void deleteCourseShouldCascadeEnrollments() {
+        Student student = studentRepository.save(student("John")).result();
+        Course math = courseRepository.save(course("Math")).result();
+        studentRepository.addCourseToStudent(student.getId(), math.getId());
+
+        courseRepository.deleteById(math.getId());
+
+        assertTrue(studentRepository.findAllCoursesByStudentId(student.getId()).result().isEmpty());
+        assertTrue(courseRepository.save(course("Math")).succeeded());
+    }
+
+    @Test
+    void deleteTeacherShouldSetNullOnCoursesAndDepartments() {
+        Teacher teacher = teacherRepository.save(Teacher.builder().name("Dr. Smith").build()).result();
+        Course math = courseRepository.save(course("Math")).result();
+        Department department = departmentRepository.save(Department.builder().name("Science").build()).result();
+        courseRepository.setTeacherToCourse(math.getId(), teacher.getId());
+        departmentRepository.setTeacherToDepartment(department.getId(), teacher.getId());
+
+        teacherRepository.deleteById(teacher.getId());
+
+        assertNull(courseRepository.findById(math.getId()).result().orElseThrow().getTeacherId());
+        assertNull(departmentRepository.findById(department.getId()).result().orElseThrow().getHeadOfDepartmentId());
+        assertTrue(courseRepository.findAllByTeacherId(teacher.getId()).result().isEmpty());
+        assertEquals(Optional.empty(), departmentRepository.findByHeadOfDepartmentId(teacher.getId()).result());
+    }
+
+    @Test
+    void setTeacherToCourseShouldRejectMissingTeacher() {
+        Course math = courseRepository.save(course("Math")).result();
+
+        Future<Void> result = courseRepository.setTeacherToCourse(math.getId(), 99L);
+
+        assertTrue(result.failed());
+        assertInstanceOf(ConstraintViolationException.class, result.cause());
+    }
+
+    @Test
+    void returnedEntitiesShouldNotAliasStoredState() {
+        Student saved = studentRepository.save(student("John")).result();
+        saved.setName("Changed");
+
+        assertEquals("John", studentRepository.findById(saved.getId()).result().orElseThrow().getName());
+    }
+
+    private static Student student(String name) {
+        return Student.builder().name(name).email(name.toLowerCase() + "@mail.com").build();
+    }
+
+    private static Course course(String title) {
+        return Course.builder().title(title).build();
+    }
+}
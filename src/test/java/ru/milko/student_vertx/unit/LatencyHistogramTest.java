@@ -0,0 +1,41 @@
+package ru.milko.student_vertx.unit;
+
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.database.LatencyHistogram;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void percentileShouldBeMinusOneWithoutSamples() {
+        assertEquals(-1, new LatencyHistogram(1000).percentileMicros(0.95));
+    }
+
+    @Test
+    void percentileShouldStayWithinBucketResolution() {
+        LatencyHistogram histogram = new LatencyHistogram(10_000);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+
+        long p95 = histogram.percentileMicros(0.95);
+
+        assertTrue(p95 >= 95_000 && p95 <= 95_000 * 1.25, "p95 was " + p95);
+        assertTrue(histogram.percentileMicros(0.5) < p95);
+    }
+
+    @Test
+    void decayShouldLetRecentSamplesDominate() {
+        LatencyHistogram histogram = new LatencyHistogram(100);
+        for (int i = 0; i < 99; i++) {
+            histogram.record(50_000_000L);
+        }
+        for (int i = 0; i < 500; i++) {
+            histogram.record(1_000_000L);
+        }
+
+        assertTrue(histogram.percentileMicros(0.95) <= 1_250, "p95 was " + histogram.percentileMicros(0.95));
+        assertTrue(histogram.count() < 200);
+    }
+}
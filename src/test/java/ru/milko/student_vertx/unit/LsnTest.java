@@ -0,0 +1,34 @@
+package ru.milko.student_vertx.unit;
+
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.database.Lsn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LsnTest {
+
+    @Test
+    void parseShouldPackHighAndLowWords() {
+        assertEquals(0x16B374D848L, Lsn.parse("16/B374D848"));
+        assertEquals(Lsn.NONE, Lsn.parse(null));
+    }
+
+    @Test
+    void formatShouldRoundTrip() {
+        assertEquals("16/B374D848", Lsn.format(Lsn.parse("16/B374D848")));
+        assertEquals("0/0", Lsn.format(Lsn.NONE));
+    }
+
+    @Test
+    void parsedValuesShouldOrderLikePostgres() {
+        assertTrue(Lsn.parse("1/0") > Lsn.parse("0/FFFFFFFF"));
+        assertTrue(Lsn.parse("0/16B3748") < Lsn.parse("0/16B3750"));
+    }
+
+    @Test
+    void parseShouldRejectMalformedValues() {
+        assertThrows(IllegalArgumentException.class, () -> Lsn.parse("16B374D848"));
+        assertThrows(IllegalArgumentException.class, () -> Lsn.parse("16/"));
+        assertThrows(IllegalArgumentException.class, () -> Lsn.parse("1FFFFFFFF/0"));
+    }
+}
@@ -0,0 +1,80 @@
+package ru.milko.student_vertx.unit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.metrics.InstrumentedStudentRepository;
+import ru.milko.student_vertx.metrics.Metrics;
+import ru.milko.student_vertx.metrics.RepositoryMetrics;
+import ru.milko.student_vertx.metrics.RouteMetrics;
+import ru.milko.student_vertx.model.Student;
+import ru.milko.student_vertx.repository.StudentRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class MetricsTest {
+
+    @BeforeAll
+    static void setUp() {
+        Map<String, String> properties = Map.of("metrics.enabled", "true");
+        Config config = mock(Config.class);
+        when(config.get(anyString(), anyString()))
+                .thenAnswer(invocation -> properties.getOrDefault(invocation.getArgument(0), invocation.getArgument(1)));
+        Metrics.configure(config);
+    }
+
+    @Test
+    void failedRequestsShouldBeAttributedToTheirRouteTemplate() {
+        Vertx vertx = Vertx.vertx();
+        try {
+            Router router = Router.router(vertx);
+            router.route("/api/*").handler(context -> context.next());
+            router.get("/api/v1/students/:id").handler(context -> context.end());
+            router.post("/api/v1/students/:studentId/courses/:courseId").handler(context -> context.end());
+            RouteMetrics.register(router);
+
+            assertEquals("/api/v1/students/:id", RouteMetrics.resolve(HttpMethod.GET, "/api/v1/students/abc"));
+            assertEquals("/api/v1/students/:studentId/courses/:courseId",
+                    RouteMetrics.resolve(HttpMethod.POST, "/api/v1/students/1/courses/2/"));
+            assertEquals(RouteMetrics.UNMATCHED, RouteMetrics.resolve(HttpMethod.DELETE, "/api/v1/students/1"));
+            assertEquals(RouteMetrics.UNMATCHED, RouteMetrics.resolve(HttpMethod.GET, "/api/v1/unknown"));
+        } finally {
+            vertx.close();
+        }
+    }
+
+    @Test
+    void repositoryCallsShouldRecordLatencyAndRows() {
+        StudentRepository repository = mock(StudentRepository.class);
+        when(repository.findAll()).thenReturn(Future.succeededFuture(List.of(new Student(), new Student())));
+        when(repository.findById(1L)).thenReturn(Future.succeededFuture(Optional.empty()));
+        StudentRepository instrumented = new InstrumentedStudentRepository(repository);
+
+        instrumented.findAll();
+        instrumented.findById(1L);
+
+        Timer findAll = Metrics.registry().get("repository.calls")
+                .tags("repository", "StudentRepository", "method", "findAll").timer();
+        DistributionSummary findAllRows = Metrics.registry().get("repository.rows")
+                .tags("repository", "StudentRepository", "method", "findAll").summary();
+        DistributionSummary findByIdRows = Metrics.registry().get("repository.rows")
+                .tags("repository", "StudentRepository", "method", "findById").summary();
+        assertEquals(1, findAll.count());
+        assertEquals(2.0, findAllRows.totalAmount());
+        assertEquals(1, findByIdRows.count());
+        assertEquals(0.0, findByIdRows.totalAmount());
+        assertEquals(3, RepositoryMetrics.rows(Map.of(1L, List.of(1, 2), 2L, List.of(3))));
+    }
+}
@@ -0,0 +1,34 @@
+package ru.milko.student_vertx.unit;
+
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.SqlConnection;
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.database.PoolWarmup;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class PoolWarmupTest {
+
+    @Test
+    void warmupShouldHoldMinIdleConnectionsAtOnceAndPrepareDeclaredStatements() {
+        Pool pool = mock(Pool.class);
+        SqlConnection connection = mock(SqlConnection.class);
+        when(pool.getConnection()).thenReturn(Future.succeededFuture(connection));
+        when(connection.prepare(anyString())).thenReturn(Future.succeededFuture());
+        when(connection.close()).thenReturn(Future.succeededFuture());
+        PoolWarmup.register(pool, 3);
+        PoolWarmup.register(mock(Pool.class), 0);
+        PoolWarmup.prepare(List.of("SELECT id, name FROM students WHERE id = $1"));
+
+        assertTrue(PoolWarmup.warmUp().succeeded());
+
+        verify(pool, times(3)).getConnection();
+        verify(connection, times(3)).prepare("SELECT id, name FROM students WHERE id = $1");
+        verify(connection, times(3)).close();
+    }
+}
@@ -0,0 +1,93 @@
+package ru.milko.student_vertx.unit;
+
+import io.vertx.core.Context;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.ContextInternal;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.context.CancelReason;
+import ru.milko.student_vertx.context.RequestScope;
+import ru.milko.student_vertx.database.DatabaseNode;
+import ru.milko.student_vertx.database.QueryHandle;
+import ru.milko.student_vertx.database.ReadHedging;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ReadHedgingTest {
+    private Vertx vertx;
+    private ReadHedging hedging;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+        Map<String, String> properties = Map.of(
+                "database.hedging.enabled", "true",
+                "database.hedging.budget.percent", "100",
+                "database.hedging.min.samples", "1");
+        Config config = mock(Config.class);
+        when(config.get(anyString(), anyString()))
+                .thenAnswer(invocation -> properties.getOrDefault(invocation.getArgument(0), invocation.getArgument(1)));
+        hedging = new ReadHedging(vertx, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        vertx.close();
+    }
+
+    @Test
+    void cancellingTheRequestShouldCancelBothAttempts() throws Exception {
+        hedging.record("select", 1_000_000);
+        List<QueryHandle> handles = new CopyOnWriteArrayList<>();
+        DatabaseNode first = pendingNode(handles);
+        DatabaseNode second = pendingNode(handles);
+        Context context = ((ContextInternal) vertx.getOrCreateContext()).duplicate();
+        CompletableFuture<RequestScope> opened = new CompletableFuture<>();
+
+        context.runOnContext(v -> {
+            RequestScope scope = RequestScope.open();
+            hedging.execute("select", first, second, client -> null, scope.trackQuery());
+            opened.complete(scope);
+        });
+        RequestScope scope = opened.get(5, TimeUnit.SECONDS);
+        verify(second, timeout(5000)).execute(any(), any());
+        context.runOnContext(v -> scope.cancel(CancelReason.CLIENT_DISCONNECTED));
+
+        assertEquals(1, hedging.hedgeCount());
+        for (QueryHandle handle : handles) {
+            verifyCancelled(handle);
+        }
+    }
+
+    private static DatabaseNode pendingNode(List<QueryHandle> handles) {
+        DatabaseNode node = mock(DatabaseNode.class);
+        when(node.name()).thenReturn("replica");
+        when(node.execute(any(), any())).thenAnswer(invocation -> {
+            handles.add(invocation.getArgument(1));
+            return Promise.<RowSet<Row>>promise().future();
+        });
+        return node;
+    }
+
+    private static void verifyCancelled(QueryHandle handle) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!handle.isCancelled() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(handle.isCancelled());
+    }
+}
@@ -0,0 +1,59 @@
+package ru.milko.student_vertx.unit;
+
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.context.CancelReason;
+import ru.milko.student_vertx.context.CancellationStats;
+import ru.milko.student_vertx.context.RequestScope;
+import ru.milko.student_vertx.database.QueryHandle;
+import ru.milko.student_vertx.exceptions.ClientDisconnectedException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestScopeTest {
+
+    @Test
+    void cancelShouldCancelPendingQueriesOnce() {
+        RequestScope scope = RequestScope.open();
+        QueryHandle finished = scope.trackQuery();
+        QueryHandle pending = scope.trackQuery();
+        scope.untrackQuery(finished);
+
+        assertEquals(1, scope.cancel(CancelReason.DEADLINE));
+        assertEquals(0, scope.cancel(CancelReason.DEADLINE));
+
+        assertTrue(pending.isCancelled());
+        assertFalse(finished.isCancelled());
+        assertTrue(scope.isCancelled());
+    }
+
+    @Test
+    void queriesTrackedAfterCancelShouldNeverStart() {
+        RequestScope scope = RequestScope.open();
+        scope.cancel(CancelReason.DEADLINE);
+
+        assertTrue(scope.trackQuery().isCancelled());
+    }
+
+    @Test
+    void disconnectShouldBeCountedAndReported() {
+        long requests = CancellationStats.requests(CancelReason.CLIENT_DISCONNECTED);
+        long statements = CancellationStats.cancelledStatements(CancelReason.CLIENT_DISCONNECTED);
+        RequestScope scope = RequestScope.open();
+        scope.trackQuery();
+        scope.trackQuery();
+
+        scope.cancel(CancelReason.CLIENT_DISCONNECTED);
+
+        assertEquals(requests + 1, CancellationStats.requests(CancelReason.CLIENT_DISCONNECTED));
+        assertEquals(statements + 2, CancellationStats.cancelledStatements(CancelReason.CLIENT_DISCONNECTED));
+        assertInstanceOf(ClientDisconnectedException.class, scope.cancellationFailure());
+    }
+
+    @Test
+    void remainingMillisShouldBeUnboundedWithoutDeadline() {
+        RequestScope scope = RequestScope.open();
+
+        assertFalse(scope.hasDeadline());
+        assertEquals(Long.MAX_VALUE, scope.remainingMillis());
+    }
+}
@@ -0,0 +1,64 @@
+package ru.milko.student_vertx.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.utils.ContentEncoding;
+import ru.milko.student_vertx.utils.ResponseCompression;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ResponseCompressionTest {
+    private static final String LARGE = "{\"name\":\"John Doe\"}".repeat(10);
+
+    @BeforeEach
+    void setUp() {
+        Map<String, String> properties = Map.of("http.compression.enabled", "true", "http.compression.threshold.bytes", "100");
+        Config config = mock(Config.class);
+        when(config.get(anyString(), anyString()))
+                .thenAnswer(invocation -> properties.getOrDefault(invocation.getArgument(0), invocation.getArgument(1)));
+        ResponseCompression.configure(config);
+    }
+
+    @Test
+    void negotiationShouldHonourWeightsAndPreferBrotliOnTies() {
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("gzip;q=0.8, br;q=0.2"));
+        assertEquals(ContentEncoding.BROTLI, ContentEncoding.negotiate("deflate, gzip, br"));
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("br;q=0, *"));
+        assertNull(ContentEncoding.negotiate("identity"));
+        assertNull(ContentEncoding.negotiate(null));
+    }
+
+    @Test
+    void smallBodyShouldBypassCompression() throws Exception {
+        ResponseCompression.Encoded encoded = ResponseCompression.encode("/small", "gzip", "{\"id\":1}");
+
+        assertNull(encoded.encoding());
+        assertEquals("{\"id\":1}", encoded.body().toString());
+    }
+
+    @Test
+    void unchangedBodyShouldBeServedFromStore() throws Exception {
+        long compressed = ResponseCompression.compressed();
+        long storeHits = ResponseCompression.storeHits();
+
+        ResponseCompression.Encoded first = ResponseCompression.encode("/students", "gzip", LARGE);
+        ResponseCompression.Encoded second = ResponseCompression.encode("/students", "gzip", LARGE);
+        ResponseCompression.encode("/students", "gzip", LARGE + " ");
+
+        assertEquals(ContentEncoding.GZIP, second.encoding());
+        assertSame(first.body(), second.body());
+        assertEquals(compressed + 2, ResponseCompression.compressed());
+        assertEquals(storeHits + 1, ResponseCompression.storeHits());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(second.body().getBytes()))) {
+            assertEquals(LARGE, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
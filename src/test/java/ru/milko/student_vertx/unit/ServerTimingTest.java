@@ -0,0 +1,32 @@
+package ru.milko.student_vertx.unit;
+
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.context.ServerTiming;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServerTimingTest {
+    private static final long MS = 1_000_000;
+
+    @Test
+    void headerShouldListStagesAndCountOverlappingStatementsOnce() {
+        ServerTiming timing = new ServerTiming(0);
+        timing.acquired(MS / 2);
+        timing.statement("SELECT id, name\n  FROM students WHERE id = $1", MS, 4 * MS);
+        timing.statement("SELECT \"name\" FROM courses", 2 * MS, 6 * MS);
+        timing.responding(8 * MS);
+        timing.serialized(MS);
+
+        assertEquals("acquire;dur=0.500;desc=\"waits: 1\", "
+                        + "sql-1;dur=3.000;desc=\"SELECT id, name FROM students WHERE id = $1\", "
+                        + "sql-2;dur=4.000;desc=\"SELECT \\\"name\\\" FROM courses\", "
+                        + "db;dur=5.000;desc=\"statements: 2\", "
+                        + "mapping;dur=3.000, serialize;dur=1.000, total;dur=10.000",
+                timing.header(10 * MS));
+    }
+
+    @Test
+    void headerWithoutStagesShouldOnlyHoldTotal() {
+        assertEquals("total;dur=2.500", new ServerTiming(MS).header(3 * MS + MS / 2));
+    }
+}
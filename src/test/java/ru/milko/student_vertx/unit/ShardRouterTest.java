@@ -0,0 +1,121 @@
+package ru.milko.student_vertx.unit;
+
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowIterator;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import ru.milko.student_vertx.database.DatabaseClient;
+import ru.milko.student_vertx.database.ShardRouter;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ShardRouterTest {
+    private DatabaseClient shard0;
+    private DatabaseClient shard1;
+    private DatabaseClient shard2;
+    private ShardRouter router;
+
+    @BeforeEach
+    void setUp() {
+        shard0 = mock(DatabaseClient.class);
+        shard1 = mock(DatabaseClient.class);
+        shard2 = mock(DatabaseClient.class);
+        router = new ShardRouter(List.of(shard0, shard1, shard2));
+    }
+
+    @Test
+    void studentIdShouldSelectShardByModulo() {
+        assertSame(shard0, router.shardOf(3L));
+        assertSame(shard1, router.shardOf(4L));
+        assertSame(shard2, router.shardOf(5L));
+        assertEquals(Map.of(0, List.of(3L, 6L), 1, List.of(1L), 2, List.of(2L)), router.groupByShard(List.of(3L, 1L, 2L, 6L)));
+    }
+
+    @Test
+    void insertReferenceShouldCopyHomeIdToOtherShards() {
+        RowSet<Row> inserted = rowSetWithId(42L);
+        when(shard0.write(eq("insert"), any())).thenReturn(Future.succeededFuture(inserted));
+        when(shard1.write(eq("copy"), any())).thenReturn(Future.succeededFuture(null));
+        when(shard2.write(eq("copy"), any())).thenReturn(Future.succeededFuture(null));
+
+        Future<RowSet<Row>> result = router.insertReference("insert", "copy", "delete", Tuple.of("Math"));
+
+        assertSame(inserted, result.result());
+        ArgumentCaptor<Tuple> copyParams = ArgumentCaptor.forClass(Tuple.class);
+        verify(shard1).write(eq("copy"), copyParams.capture());
+        assertEquals("Math", copyParams.getValue().getString(0));
+        assertEquals(42L, copyParams.getValue().getLong(1));
+        verify(shard2).write(eq("copy"), any());
+    }
+
+    @Test
+    void insertReferenceShouldDeleteTheRowAgainWhenACopyFails() {
+        RowSet<Row> inserted = rowSetWithId(42L);
+        when(shard0.write(eq("insert"), any())).thenReturn(Future.succeededFuture(inserted));
+        when(shard1.write(eq("copy"), any())).thenReturn(Future.failedFuture(new RuntimeException("shard down")));
+        when(shard0.write(eq("delete"), any())).thenReturn(Future.succeededFuture(null));
+        when(shard1.write(eq("delete"), any())).thenReturn(Future.succeededFuture(null));
+        when(shard2.write(eq("delete"), any())).thenReturn(Future.succeededFuture(null));
+
+        Future<RowSet<Row>> result = router.insertReference("insert", "copy", "delete", Tuple.of("Math"));
+
+        assertTrue(result.failed());
+        assertEquals("shard down", result.cause().getMessage());
+        verify(shard2, never()).write(eq("copy"), any());
+        ArgumentCaptor<Tuple> deleteParams = ArgumentCaptor.forClass(Tuple.class);
+        verify(shard0).write(eq("delete"), deleteParams.capture());
+        assertEquals(42L, deleteParams.getValue().getLong(0));
+    }
+
+    @Test
+    void writeReferenceShouldCopyInOrderAndStopAtTheFirstFailure() {
+        when(shard0.write(any(), any())).thenReturn(Future.succeededFuture(null));
+        when(shard1.write(any(), any())).thenReturn(Future.failedFuture(new RuntimeException("shard down")));
+        when(shard2.write(any(), any())).thenReturn(Future.succeededFuture(null));
+
+        Future<RowSet<Row>> result = router.writeReference("DELETE FROM courses WHERE id = $1", Tuple.of(1L));
+
+        assertTrue(result.failed());
+        assertEquals("shard down", result.cause().getMessage());
+        InOrder order = inOrder(shard0, shard1);
+        order.verify(shard0).write(any(), any());
+        order.verify(shard1).write(any(), any());
+        verify(shard2, never()).write(any(), any());
+    }
+
+    @Test
+    void relationshipWriteShouldRunInTransactionOnEveryShard() {
+        when(shard0.writeInTransaction(any(), any())).thenReturn(Future.succeededFuture(null));
+        when(shard1.writeInTransaction(any(), any())).thenReturn(Future.succeededFuture(null));
+        when(shard2.writeInTransaction(any(), any())).thenReturn(Future.succeededFuture(null));
+
+        Future<RowSet<Row>> result = router.writeReferenceInTransaction("UPDATE courses SET teacher_id = $1 WHERE id = $2", Tuple.of(2L, 1L));
+
+        assertTrue(result.succeeded());
+        verify(shard1).writeInTransaction(any(), any());
+        verify(shard2).writeInTransaction(any(), any());
+        verify(shard0, never()).write(any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RowSet<Row> rowSetWithId(long id) {
+        Row row = mock(Row.class);
+        when(row.getLong("id")).thenReturn(id);
+        RowIterator<Row> iterator = mock(RowIterator.class);
+        when(iterator.next()).thenReturn(row);
+        RowSet<Row> rowSet = mock(RowSet.class);
+        when(rowSet.iterator()).thenReturn(iterator);
+        return rowSet;
+    }
+}
@@ -0,0 +1,113 @@
+package ru.milko.student_vertx.unit;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.dto.CourseDto;
+import ru.milko.student_vertx.dto.StudentDto;
+import ru.milko.student_vertx.dto.TeacherDto;
+import ru.milko.student_vertx.exceptions.EntityNotFoundException;
+import ru.milko.student_vertx.mapper.CourseMapper;
+import ru.milko.student_vertx.mapper.StudentMapper;
+import ru.milko.student_vertx.mapper.TeacherMapper;
+import ru.milko.student_vertx.model.Course;
+import ru.milko.student_vertx.model.Student;
+import ru.milko.student_vertx.model.Teacher;
+import ru.milko.student_vertx.repository.CourseRepository;
+import ru.milko.student_vertx.repository.StudentRepository;
+import ru.milko.student_vertx.repository.TeacherRepository;
+import ru.milko.student_vertx.service.impl.VirtualThreadCourseServiceImpl;
+import ru.milko.student_vertx.service.impl.VirtualThreadStudentServiceImpl;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class VirtualThreadServiceImplTest {
+    private Vertx vertx;
+    private StudentRepository studentRepository;
+    private CourseRepository courseRepository;
+    private TeacherRepository teacherRepository;
+    private StudentMapper studentMapper;
+    private CourseMapper courseMapper;
+    private TeacherMapper teacherMapper;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+        studentRepository = mock(StudentRepository.class);
+        courseRepository = mock(CourseRepository.class);
+        teacherRepository = mock(TeacherRepository.class);
+        studentMapper = mock(StudentMapper.class);
+        courseMapper = mock(CourseMapper.class);
+        teacherMapper = mock(TeacherMapper.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        vertx.close();
+    }
+
+    @Test
+    void studentFindByIdShouldStartStudentAndCoursesTogether() throws Exception {
+        VirtualThreadStudentServiceImpl service = new VirtualThreadStudentServiceImpl(
+                studentRepository, courseRepository, teacherRepository, studentMapper, courseMapper, teacherMapper);
+        Promise<Optional<Student>> student = Promise.promise();
+        Promise<List<Course>> courses = Promise.promise();
+        when(studentRepository.findById(1L)).thenReturn(student.future());
+        when(courseRepository.findAllByStudentId(1L)).thenReturn(courses.future());
+        when(teacherRepository.findAllByIds(any())).thenReturn(Future.succeededFuture(List.of(Teacher.builder().id(2L).build())));
+        when(studentMapper.toStudentDto(any())).thenReturn(StudentDto.builder().id(1L).build());
+        when(courseMapper.toCourseDto(any())).thenReturn(CourseDto.builder().id(3L).build());
+        when(teacherMapper.toTeacherDto(any())).thenReturn(TeacherDto.builder().id(2L).build());
+
+        Future<StudentDto> result = onVirtualThread(() -> service.findById(1L));
+
+        verify(studentRepository, timeout(5000)).findById(1L);
+        verify(courseRepository, timeout(5000)).findAllByStudentId(1L);
+        courses.complete(List.of(Course.builder().id(3L).teacherId(2L).build()));
+        student.complete(Optional.of(Student.builder().id(1L).build()));
+
+        StudentDto dto = result.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertEquals(1, dto.getCourses().size());
+        assertEquals(2L, dto.getCourses().get(0).getTeacher().getId());
+    }
+
+    @Test
+    void courseFindByIdShouldFailWhenCourseIsMissing() {
+        VirtualThreadCourseServiceImpl service = new VirtualThreadCourseServiceImpl(
+                courseRepository, teacherRepository, studentRepository, courseMapper, teacherMapper, studentMapper);
+        when(courseRepository.findById(1L)).thenReturn(Future.succeededFuture(Optional.empty()));
+        when(studentRepository.findAllByCourseId(1L)).thenReturn(Future.succeededFuture(List.of()));
+
+        Future<CourseDto> result = onVirtualThread(() -> service.findById(1L));
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> result.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(EntityNotFoundException.class, failure.getCause());
+        verify(teacherRepository, never()).findById(any());
+    }
+
+    private <T> Future<T> onVirtualThread(Supplier<Future<T>> call) {
+        Promise<T> promise = Promise.promise();
+        vertx.deployVerticle(new AbstractVerticle() {
+            @Override
+            public void start() {
+                call.get().onComplete(promise);
+            }
+        }, new DeploymentOptions().setThreadingModel(ThreadingModel.VIRTUAL_THREAD));
+        return promise.future();
+    }
+}
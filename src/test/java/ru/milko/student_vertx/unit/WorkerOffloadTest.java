@@ -0,0 +1,61 @@
+package ru.milko.student_vertx.unit;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.milko.student_vertx.config.Config;
+import ru.milko.student_vertx.utils.WorkerOffload;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class WorkerOffloadTest {
+    private Vertx vertx;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+        Map<String, String> properties = Map.of("worker.offload.threshold", "10", "worker.offload.pool.size", "1");
+        Config config = mock(Config.class);
+        when(config.get(anyString(), anyString()))
+                .thenAnswer(invocation -> properties.getOrDefault(invocation.getArgument(0), invocation.getArgument(1)));
+        WorkerOffload.configure(vertx, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        vertx.close();
+    }
+
+    @Test
+    void largeWorkOnEventLoopShouldRunOnWorkerPool() throws Exception {
+        long offloaded = WorkerOffload.offloaded().count();
+
+        String thread = onEventLoop(10);
+
+        assertTrue(thread.startsWith("offload-worker"), "ran on " + thread);
+        assertEquals(offloaded + 1, WorkerOffload.offloaded().count());
+    }
+
+    @Test
+    void smallWorkShouldRunInline() throws Exception {
+        String thread = onEventLoop(9);
+
+        assertTrue(thread.startsWith("vert.x-eventloop-thread"), "ran on " + thread);
+        assertTrue(WorkerOffload.run(1000, () -> "off the event loop").succeeded());
+    }
+
+    private String onEventLoop(int size) throws Exception {
+        Promise<String> promise = Promise.promise();
+        vertx.runOnContext(v -> WorkerOffload.run(size, () -> Thread.currentThread().getName()).onComplete(promise));
+        Future<String> result = promise.future();
+        return result.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+}